@@ -0,0 +1,187 @@
+/*
+   Copyright 2012 Patrick Ahlbrecht
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+
+package de.onyxbits.sensorreadout;
+
+import java.io.*;
+import java.nio.BufferUnderflowException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * Reads a capture file, as written by <code>CaptureWriter</code>. The file is
+ * memory mapped, so opening it only costs parsing the header, no matter how
+ * long the capture is. A trailing, incomplete record is ignored.
+ */
+class CaptureReader {
+
+	/**
+	 * The mapped file
+	 */
+	private MappedByteBuffer data;
+
+	private String sensorName;
+
+	private String sensorVendor;
+
+	private int sensorType;
+
+	private float sensorResolution;
+
+	private String[] channelNames;
+
+	/**
+	 * Where the first record starts
+	 */
+	private int offset;
+
+	/**
+	 * Size of a record in bytes
+	 */
+	private int recordSize;
+
+	/**
+	 * Number of complete records in the file
+	 */
+	private int records;
+
+	/**
+	 * Open a capture file
+	 *
+	 * @param file
+	 *          the file to read
+	 * @throws IOException
+	 *           if the file cannot be read or is not a capture file
+	 */
+	public CaptureReader(File file) throws IOException {
+		FileInputStream in = new FileInputStream(file);
+		try {
+			FileChannel channel = in.getChannel();
+			long size = channel.size();
+			if (size > Integer.MAX_VALUE) {
+				throw new IOException("Capture too large to map: " + size);
+			}
+			data = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+		}
+		finally {
+			// The mapping stays valid after closing.
+			in.close();
+		}
+
+		try {
+			if (data.getInt() != CaptureWriter.MAGIC) {
+				throw new IOException("Not a capture file");
+			}
+			short version = data.getShort();
+			if (version != CaptureWriter.VERSION) {
+				throw new IOException("Unsupported capture version " + version);
+			}
+			sensorName = readString();
+			sensorVendor = readString();
+			sensorType = data.getInt();
+			sensorResolution = data.getFloat();
+			channelNames = new String[data.getShort()];
+			for (int i = 0; i < channelNames.length; i++) {
+				channelNames[i] = readString();
+			}
+		}
+		catch (BufferUnderflowException e) {
+			throw new IOException("Truncated capture header");
+		}
+		offset = data.position();
+		recordSize = CaptureWriter.getRecordSize(channelNames.length);
+		records = (data.limit() - offset) / recordSize;
+	}
+
+	public String getSensorName() {
+		return sensorName;
+	}
+
+	public String getSensorVendor() {
+		return sensorVendor;
+	}
+
+	public int getSensorType() {
+		return sensorType;
+	}
+
+	public float getSensorResolution() {
+		return sensorResolution;
+	}
+
+	public String[] getChannelNames() {
+		return channelNames.clone();
+	}
+
+	public int getChannelCount() {
+		return channelNames.length;
+	}
+
+	/**
+	 * @return number of complete records in the file
+	 */
+	public int getRecordCount() {
+		return records;
+	}
+
+	/**
+	 * Get the timestamp of a record
+	 *
+	 * @param record
+	 *          record index
+	 * @return nanoseconds since the start of the capture
+	 */
+	public long getTimestamp(int record) {
+		checkRecord(record);
+		return data.getLong(offset + record * recordSize);
+	}
+
+	/**
+	 * Get a value of a record
+	 *
+	 * @param record
+	 *          record index
+	 * @param channel
+	 *          channel index
+	 * @return the value
+	 */
+	public float getValue(int record, int channel) {
+		checkRecord(record);
+		if (channel < 0 || channel >= channelNames.length) {
+			throw new IndexOutOfBoundsException("Channel: " + channel);
+		}
+		return data.getFloat(offset + record * recordSize + 8 + 4 * channel);
+	}
+
+	private String readString() {
+		byte[] bytes = new byte[data.getShort() & 0xffff];
+		data.get(bytes);
+		try {
+			return new String(bytes, "UTF-8");
+		}
+		catch (UnsupportedEncodingException e) {
+			// UTF-8 is always supported
+			throw new RuntimeException(e);
+		}
+	}
+
+	private void checkRecord(int record) {
+		if (record < 0 || record >= records) {
+			throw new IndexOutOfBoundsException("Record: " + record + ", Records: "
+					+ records);
+		}
+	}
+}
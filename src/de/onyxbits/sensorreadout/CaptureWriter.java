@@ -0,0 +1,213 @@
+/*
+   Copyright 2012 Patrick Ahlbrecht
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+
+package de.onyxbits.sensorreadout;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+
+import android.hardware.Sensor;
+
+/**
+ * Writes a binary capture file. The file starts with a header, describing the
+ * <code>Sensor</code> and the channels, followed by fixed width records of a
+ * timestamp and one value per channel. All numbers are big endian.
+ * <p>
+ * Header: magic (int), version (short), sensor name, sensor vendor (strings),
+ * sensor type (int), sensor resolution (float), channel count (short),
+ * channel names (strings). Strings are stored as a short byte count, followed
+ * by the UTF-8 bytes.
+ * <p>
+ * Record: nanoseconds since the start of the capture (long), followed by one
+ * float per channel.
+ */
+class CaptureWriter {
+
+	/**
+	 * Identifies capture files
+	 */
+	public static final int MAGIC = 0x53524346;
+
+	/**
+	 * Version of the file format
+	 */
+	public static final short VERSION = 2;
+
+	/**
+	 * How many records to collect before writing them out
+	 */
+	private static final int BATCHSIZE = 512;
+
+	/**
+	 * Where the data goes
+	 */
+	private FileChannel channel;
+
+	/**
+	 * Collects records until there are enough of them to write
+	 */
+	private ByteBuffer buffer;
+
+	/**
+	 * Number of values per record
+	 */
+	private int channels;
+
+	/**
+	 * Number of records appended so far
+	 */
+	private int records;
+
+	/**
+	 * Create a new capture file, discarding existing content.
+	 *
+	 * @param file
+	 *          the file to write
+	 * @param sensor
+	 *          the sensor that is being captured
+	 * @param channelNames
+	 *          one name per channel
+	 * @throws IOException
+	 *           if the file cannot be written
+	 */
+	public CaptureWriter(File file, Sensor sensor, String[] channelNames)
+			throws IOException {
+		channels = channelNames.length;
+		buffer = ByteBuffer.allocateDirect(BATCHSIZE * getRecordSize(channels));
+		channel = new FileOutputStream(file).getChannel();
+
+		try {
+			ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+			DataOutputStream header = new DataOutputStream(bytes);
+			header.writeInt(MAGIC);
+			header.writeShort(VERSION);
+			writeString(header, sensor.getName());
+			writeString(header, sensor.getVendor());
+			header.writeInt(sensor.getType());
+			header.writeFloat(sensor.getResolution());
+			header.writeShort(channels);
+			for (String name : channelNames) {
+				writeString(header, name);
+			}
+			header.close();
+			write(ByteBuffer.wrap(bytes.toByteArray()));
+		}
+		catch (IOException e) {
+			// Nobody gets to close a writer that failed to construct
+			channel.close();
+			throw e;
+		}
+	}
+
+	/**
+	 * Calculate the size of a record
+	 *
+	 * @param channels
+	 *          number of channels
+	 * @return size of a record in bytes
+	 */
+	public static int getRecordSize(int channels) {
+		return 8 + 4 * channels;
+	}
+
+	/**
+	 * Add a record. Records are written in batches, call <code>flush()</code>
+	 * to make sure they are on disk.
+	 *
+	 * @param timestamp
+	 *          nanoseconds since the start of the capture
+	 * @param values
+	 *          one value per channel, surplus values are ignored
+	 * @throws IOException
+	 *           if writing fails
+	 */
+	public void append(long timestamp, float[] values) throws IOException {
+		buffer.putLong(timestamp);
+		for (int i = 0; i < channels; i++) {
+			buffer.putFloat(values[i]);
+		}
+		records++;
+		if (buffer.remaining() < getRecordSize(channels)) {
+			flush();
+		}
+	}
+
+	/**
+	 * @return number of records appended so far
+	 */
+	public int getRecordCount() {
+		return records;
+	}
+
+	/**
+	 * Write out all pending records.
+	 *
+	 * @throws IOException
+	 *           if writing fails
+	 */
+	public void flush() throws IOException {
+		buffer.flip();
+		write(buffer);
+		buffer.clear();
+	}
+
+	/**
+	 * Write out pending records and close the file.
+	 *
+	 * @throws IOException
+	 *           if writing fails
+	 */
+	public void close() throws IOException {
+		try {
+			flush();
+		}
+		finally {
+			channel.close();
+		}
+	}
+
+	/**
+	 * Write a string as a short byte count, followed by the UTF-8 bytes
+	 *
+	 * @param out
+	 *          where to write to
+	 * @param str
+	 *          what to write
+	 * @throws IOException
+	 *           if writing fails
+	 */
+	private static void writeString(DataOutputStream out, String str)
+			throws IOException {
+		byte[] bytes = str.getBytes("UTF-8");
+		out.writeShort(bytes.length);
+		out.write(bytes);
+	}
+
+	/**
+	 * Write a buffer completely
+	 *
+	 * @param src
+	 *          what to write
+	 * @throws IOException
+	 *           if writing fails
+	 */
+	private void write(ByteBuffer src) throws IOException {
+		while (src.hasRemaining()) {
+			channel.write(src);
+		}
+	}
+}
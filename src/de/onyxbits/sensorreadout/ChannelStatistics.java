@@ -0,0 +1,295 @@
+/*
+   Copyright 2012 Patrick Ahlbrecht
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+
+package de.onyxbits.sensorreadout;
+
+import org.achartengine.util.WindowExtrema;
+
+/**
+ * Incremental per channel statistics (mean, standard deviation, RMS, minimum,
+ * maximum), both over the whole session and over a sliding window of the most
+ * recent seconds. Means and variances are updated with Welford's algorithm,
+ * the window extrema with monotonic deques, so every sample costs constant
+ * (amortized) time and, once the window buffers have grown to size, no
+ * allocation. Samples are added by the capture thread, the statistics may be
+ * read from any thread.
+ */
+class ChannelStatistics {
+
+	/**
+	 * Number of channels
+	 */
+	private final int channels;
+
+	/**
+	 * Width of the sliding window in seconds
+	 */
+	private final double window;
+
+	/**
+	 * Number of samples in the session
+	 */
+	private long count;
+
+	private final double[] mean;
+
+	/**
+	 * Sum of squared differences from the mean, per channel
+	 */
+	private final double[] m2;
+
+	private final double[] min;
+
+	private final double[] max;
+
+	/**
+	 * Number of samples in the window
+	 */
+	private int windowCount;
+
+	private final double[] windowMean;
+
+	private final double[] windowM2;
+
+	private final WindowExtrema[] windowExtrema;
+
+	/**
+	 * X values of the samples in the window, as a ring buffer
+	 */
+	private double[] windowXs = new double[256];
+
+	/**
+	 * Values of the samples in the window, <code>channels</code> slots per
+	 * sample, parallel to <code>windowXs</code>
+	 */
+	private float[] windowValues;
+
+	/**
+	 * Ring buffer position of the oldest sample in the window
+	 */
+	private int head;
+
+	/**
+	 * Create new, empty statistics
+	 *
+	 * @param channels
+	 *          number of channels
+	 * @param window
+	 *          width of the sliding window in seconds
+	 */
+	public ChannelStatistics(int channels, double window) {
+		this.channels = channels;
+		this.window = window;
+		mean = new double[channels];
+		m2 = new double[channels];
+		min = new double[channels];
+		max = new double[channels];
+		windowMean = new double[channels];
+		windowM2 = new double[channels];
+		windowExtrema = new WindowExtrema[channels];
+		for (int i = 0; i < channels; i++) {
+			windowExtrema[i] = new WindowExtrema();
+		}
+		windowValues = new float[windowXs.length * channels];
+	}
+
+	/**
+	 * @return number of channels
+	 */
+	public int getChannelCount() {
+		return channels;
+	}
+
+	/**
+	 * @return width of the sliding window in seconds
+	 */
+	public double getWindow() {
+		return window;
+	}
+
+	/**
+	 * Add a sample. Samples that dropped out of the window are removed from it.
+	 *
+	 * @param x
+	 *          X value of the sample in seconds. Must not be smaller than the
+	 *          previous one.
+	 * @param sample
+	 *          one value per channel (surplus values are ignored)
+	 */
+	public synchronized void add(double x, float[] sample) {
+		count++;
+		for (int i = 0; i < channels; i++) {
+			double value = sample[i];
+			double delta = value - mean[i];
+			mean[i] += delta / count;
+			m2[i] += delta * (value - mean[i]);
+			if (count == 1 || value < min[i]) {
+				min[i] = value;
+			}
+			if (count == 1 || value > max[i]) {
+				max[i] = value;
+			}
+		}
+
+		while (windowCount > 0 && windowXs[head] < x - window) {
+			expire();
+		}
+		if (windowCount == windowXs.length) {
+			grow();
+		}
+		int slot = (head + windowCount) % windowXs.length;
+		windowXs[slot] = x;
+		System.arraycopy(sample, 0, windowValues, slot * channels, channels);
+		windowCount++;
+		for (int i = 0; i < channels; i++) {
+			double value = sample[i];
+			double delta = value - windowMean[i];
+			windowMean[i] += delta / windowCount;
+			windowM2[i] += delta * (value - windowMean[i]);
+			windowExtrema[i].add(value);
+		}
+	}
+
+	/**
+	 * Remove the oldest sample from the window, reversing its Welford update
+	 */
+	private void expire() {
+		int offset = head * channels;
+		windowCount--;
+		for (int i = 0; i < channels; i++) {
+			if (windowCount == 0) {
+				windowMean[i] = 0;
+				windowM2[i] = 0;
+			}
+			else {
+				double value = windowValues[offset + i];
+				double delta = value - windowMean[i];
+				windowMean[i] -= delta / windowCount;
+				// Rounding must not turn the variance negative.
+				windowM2[i] = Math.max(0, windowM2[i] - delta * (value - windowMean[i]));
+			}
+			windowExtrema[i].removeFirst();
+		}
+		head = (head + 1) % windowXs.length;
+	}
+
+	/**
+	 * Double the capacity of the window buffers, unrolling the ring
+	 */
+	private void grow() {
+		int capacity = windowXs.length;
+		double[] xs = new double[capacity * 2];
+		float[] values = new float[xs.length * channels];
+		int tail = capacity - head;
+		System.arraycopy(windowXs, head, xs, 0, tail);
+		System.arraycopy(windowXs, 0, xs, tail, head);
+		System.arraycopy(windowValues, head * channels, values, 0, tail * channels);
+		System.arraycopy(windowValues, 0, values, tail * channels, head * channels);
+		windowXs = xs;
+		windowValues = values;
+		head = 0;
+	}
+
+	/**
+	 * @param windowed
+	 *          true for the sliding window, false for the whole session
+	 * @return number of samples
+	 */
+	public synchronized long getCount(boolean windowed) {
+		return windowed ? windowCount : count;
+	}
+
+	/**
+	 * @param channel
+	 *          the channel
+	 * @param windowed
+	 *          true for the sliding window, false for the whole session
+	 * @return mean value, 0 if there are no samples
+	 */
+	public synchronized double getMean(int channel, boolean windowed) {
+		return windowed ? windowMean[channel] : mean[channel];
+	}
+
+	/**
+	 * @param channel
+	 *          the channel
+	 * @param windowed
+	 *          true for the sliding window, false for the whole session
+	 * @return sample standard deviation (the noise), 0 for less than two samples
+	 */
+	public synchronized double getStandardDeviation(int channel, boolean windowed) {
+		long n = windowed ? windowCount : count;
+		double sum = windowed ? windowM2[channel] : m2[channel];
+		return n < 2 ? 0 : Math.sqrt(sum / (n - 1));
+	}
+
+	/**
+	 * @param channel
+	 *          the channel
+	 * @param windowed
+	 *          true for the sliding window, false for the whole session
+	 * @return root mean square, 0 if there are no samples
+	 */
+	public synchronized double getRms(int channel, boolean windowed) {
+		long n = windowed ? windowCount : count;
+		if (n == 0) {
+			return 0;
+		}
+		double mu = windowed ? windowMean[channel] : mean[channel];
+		double sum = windowed ? windowM2[channel] : m2[channel];
+		// The mean square is the squared mean plus the population variance.
+		return Math.sqrt(mu * mu + sum / n);
+	}
+
+	/**
+	 * @param channel
+	 *          the channel
+	 * @param windowed
+	 *          true for the sliding window, false for the whole session
+	 * @return smallest value, 0 if there are no samples
+	 */
+	public synchronized double getMin(int channel, boolean windowed) {
+		if (windowed) {
+			return windowCount == 0 ? 0 : windowExtrema[channel].getMin();
+		}
+		return min[channel];
+	}
+
+	/**
+	 * @param channel
+	 *          the channel
+	 * @param windowed
+	 *          true for the sliding window, false for the whole session
+	 * @return largest value, 0 if there are no samples
+	 */
+	public synchronized double getMax(int channel, boolean windowed) {
+		if (windowed) {
+			return windowCount == 0 ? 0 : windowExtrema[channel].getMax();
+		}
+		return max[channel];
+	}
+
+	/**
+	 * @param channel
+	 *          the channel
+	 * @param windowed
+	 *          true for the sliding window, false for the whole session
+	 * @return difference between the largest and the smallest value
+	 */
+	public synchronized double getPeakToPeak(int channel, boolean windowed) {
+		return getMax(channel, windowed) - getMin(channel, windowed);
+	}
+}
@@ -1,50 +1,197 @@
 package de.onyxbits.sensorreadout;
 
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+
 import org.achartengine.model.XYMultipleSeriesDataset;
 import org.achartengine.model.XYSeries;
 
 import android.content.Intent;
+import android.net.Uri;
 import android.os.AsyncTask;
+import android.os.SystemClock;
+import android.widget.Toast;
 
 /**
- * Builds the CSV dump for sharing.
- * 
+ * Streams the CSV dump into a file for sharing.
+ *
  * @author patrick
- * 
+ *
  */
-class ExportTask extends AsyncTask<XYMultipleSeriesDataset, Integer, String> {
+class ExportTask extends AsyncTask<XYMultipleSeriesDataset, Integer, File> {
+
+	/**
+	 * Name of the dump file in the external cache directory
+	 */
+	private static final String FILENAME = "sensorreadout.csv";
+
+	/**
+	 * Minimum time between two progress updates in milliseconds
+	 */
+	private static final long PROGRESSINTERVAL = 250;
 
 	private ReadoutActivity activity;
 
-	public ExportTask(ReadoutActivity activity) {
+	/**
+	 * Samples that were evicted from the dataset (may be null)
+	 */
+	private SpillFile spill;
+
+	/**
+	 * Figures for the header of the dump (may be null)
+	 */
+	private ChannelStatistics statistics;
+
+	/**
+	 * Where to put the dump (null if external storage is not available)
+	 */
+	private File file;
+
+	/**
+	 * Number of rows to export
+	 */
+	private int total;
+
+	/**
+	 * When progress was last published
+	 */
+	private long lastProgress;
+
+	/**
+	 * Reused for formatting one row at a time
+	 */
+	private StringBuilder row = new StringBuilder();
+
+	public ExportTask(ReadoutActivity activity, SpillFile spill,
+			ChannelStatistics statistics) {
 		this.activity = activity;
+		this.spill = spill;
+		this.statistics = statistics;
 	}
 
 	@Override
-	protected String doInBackground(XYMultipleSeriesDataset... params) {
-		StringBuilder sb = new StringBuilder();
+	protected File doInBackground(XYMultipleSeriesDataset... params) {
+		if (file == null) {
+			return null;
+		}
 		XYSeries series[] = params[0].getSeries();
+		int channels = series.length;
+		int spilled = spill == null ? 0 : spill.getRowCount();
 		int samples = series[0].getItemCount();
-		for (int i = 0; i < samples; i++) {
-			sb.append(i);
-			sb.append(", ");
-			sb.append(series[0].getY(i));
-			if (series.length > 1) {
-				sb.append(", ");
-				sb.append(series[1].getY(i));
-				if (series.length > 2) {
-					sb.append(", ");
-					sb.append(series[2].getY(i));
+		total = spilled + samples;
+		double[] values = new double[channels];
+		try {
+			Writer out = new BufferedWriter(new FileWriter(file));
+			try {
+				if (statistics != null) {
+					for (int j = 0; j < channels && j < statistics.getChannelCount(); j++) {
+						writeStatistics(out, series[j].getTitle(), j, false);
+						writeStatistics(out, series[j].getTitle(), j, true);
+					}
 				}
+				if (spilled > 0) {
+					CaptureReader in = spill.openReader();
+					for (int i = 0; i < spilled; i++) {
+						for (int j = 0; j < channels; j++) {
+							values[j] = in.getValue(i, j);
+						}
+						writeRow(out, i, in.getTimestamp(i) / 1000000000d, values);
+					}
+				}
+				for (int i = 0; i < samples; i++) {
+					for (int j = 0; j < channels; j++) {
+						values[j] = series[j].getY(i);
+					}
+					writeRow(out, spilled + i, series[0].getX(i), values);
+				}
+			}
+			finally {
+				out.close();
 			}
-			sb.append("\n");
-			publishProgress(10000 * i / samples);
 		}
-		return sb.toString();
+		catch (IOException e) {
+			file.delete();
+			return null;
+		}
+		return file;
+	}
+
+	/**
+	 * Write the statistics of a channel as a comment line
+	 *
+	 * @param out
+	 *          where to write to
+	 * @param title
+	 *          name of the channel
+	 * @param channel
+	 *          the channel
+	 * @param windowed
+	 *          true for the most recent samples, false for the whole session
+	 * @throws IOException
+	 *           if writing fails
+	 */
+	private void writeStatistics(Writer out, String title, int channel,
+			boolean windowed) throws IOException {
+		row.setLength(0);
+		row.append("# ").append(title).append(", ");
+		if (windowed) {
+			row.append("last ").append(statistics.getWindow()).append(" s");
+		}
+		else {
+			row.append("session");
+		}
+		row.append(": n=").append(statistics.getCount(windowed));
+		row.append(", mean=").append(statistics.getMean(channel, windowed));
+		row.append(", sd=").append(statistics.getStandardDeviation(channel, windowed));
+		row.append(", rms=").append(statistics.getRms(channel, windowed));
+		row.append(", min=").append(statistics.getMin(channel, windowed));
+		row.append(", max=").append(statistics.getMax(channel, windowed));
+		row.append(", p-p=").append(statistics.getPeakToPeak(channel, windowed));
+		row.append('\n');
+		out.append(row);
+	}
+
+	/**
+	 * Write one line of the dump and publish progress if it is due.
+	 *
+	 * @param out
+	 *          where to write to
+	 * @param index
+	 *          the row number, for progress reporting
+	 * @param time
+	 *          seconds since the start of the capture
+	 * @param values
+	 *          the channel values
+	 * @throws IOException
+	 *           if writing fails
+	 */
+	private void writeRow(Writer out, int index, double time, double[] values)
+			throws IOException {
+		row.setLength(0);
+		row.append(time);
+		for (int j = 0; j < values.length; j++) {
+			row.append(", ");
+			row.append(values[j]);
+		}
+		row.append('\n');
+		out.append(row);
+
+		long now = SystemClock.uptimeMillis();
+		if (now - lastProgress >= PROGRESSINTERVAL) {
+			lastProgress = now;
+			publishProgress((int) (10000L * index / total));
+		}
 	}
 
 	@Override
 	public void onPreExecute() {
+		File dir = activity.getExternalCacheDir();
+		if (dir != null) {
+			file = new File(dir, FILENAME);
+		}
 		activity.setProgressBarVisibility(true);
 	}
 
@@ -54,11 +201,16 @@ class ExportTask extends AsyncTask<XYMultipleSeriesDataset, Integer, String> {
 	}
 
 	@Override
-	public void onPostExecute(String result) {
+	public void onPostExecute(File result) {
 		activity.setProgressBarVisibility(false);
+		if (result == null) {
+			Toast.makeText(activity, R.string.msg_export_failed, Toast.LENGTH_LONG)
+					.show();
+			return;
+		}
 		Intent sendIntent = new Intent();
 		sendIntent.setAction(Intent.ACTION_SEND);
-		sendIntent.putExtra(Intent.EXTRA_TEXT, result);
+		sendIntent.putExtra(Intent.EXTRA_STREAM, Uri.fromFile(result));
 		sendIntent.setType("text/plain");
 		activity.startActivity(Intent.createChooser(sendIntent, activity
 				.getResources().getText(R.string.send_to)));
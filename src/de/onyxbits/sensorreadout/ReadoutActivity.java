@@ -16,29 +16,38 @@
 
 package de.onyxbits.sensorreadout;
 
+import java.util.Formatter;
+
 import android.app.Activity;
 import android.net.Uri;
 import android.os.Bundle;
+import android.os.IBinder;
 import android.widget.*;
 import android.view.*;
 import android.hardware.*;
 import android.graphics.*;
 import android.content.ActivityNotFoundException;
+import android.content.ComponentName;
 import android.content.Intent;
+import android.content.ServiceConnection;
 import android.content.pm.*;
 import android.content.res.*;
 
 import org.achartengine.*;
 import org.achartengine.model.*;
 import org.achartengine.renderer.*;
+import org.achartengine.util.AutoRange;
 
 /**
  * <code>Activity</code> that displays the readout of one <code>Sensor</code>.
  * This <code>Activity</code> must be started with an <code>Intent</code> that
  * passes in the number of the <code>Sensor</code> to display. If none is
- * passed, the first available <code>Sensor</code> is used.
+ * passed, the first available <code>Sensor</code> is used. The recording itself
+ * is done by the <code>RecordingService</code>, so it goes on while the
+ * <code>Activity</code> is not visible.
  */
-public class ReadoutActivity extends Activity implements View.OnTouchListener {
+public class ReadoutActivity extends Activity implements View.OnTouchListener,
+		ServiceConnection, FrameScheduler.FrameListener {
 
 	/**
 	 * For passing the index number of the <code>Sensor</code> in its
@@ -47,9 +56,68 @@ public class ReadoutActivity extends Activity implements View.OnTouchListener {
 	public static final String SENSORINDEX = "de.onyxbits.sensorreadout.SensorIndex";
 
 	/**
-	 * How often to sample per second.
+	 * How often to update the UI per second, at most. Sampling happens as fast
+	 * as the <code>Sensor</code> delivers.
+	 */
+	public static final int FRAMERATE = 30;
+
+	/**
+	 * How many seconds the viewport shows
+	 */
+	public static final int VIEWPORT = 10;
+
+	/**
+	 * For passing the maximum number of samples per channel to keep in memory (0
+	 * or absent for no limit other than <code>RETENTION_SECONDS</code>).
+	 */
+	public static final String RETENTION_SAMPLES = "de.onyxbits.sensorreadout.RetentionSamples";
+
+	/**
+	 * For passing how many seconds of samples to keep in memory (0 for no limit
+	 * other than <code>RETENTION_SAMPLES</code>). Defaults to
+	 * <code>DEFAULT_RETENTION_SECONDS</code>.
+	 */
+	public static final String RETENTION_SECONDS = "de.onyxbits.sensorreadout.RetentionSeconds";
+
+	/**
+	 * For passing whether samples that are evicted from memory should be moved
+	 * to a file, so they can still be exported (default: true).
+	 */
+	public static final String SPILL = "de.onyxbits.sensorreadout.Spill";
+
+	/**
+	 * For passing whether the graph should be drawn by a dedicated render thread
+	 * instead of the UI thread (default: true).
+	 */
+	public static final String RENDERTHREAD = "de.onyxbits.sensorreadout.RenderThread";
+
+	/**
+	 * For passing how many milliseconds a <code>Sensor</code> with a hardware
+	 * FIFO may hold back its events before delivering them in a burst (0 to
+	 * disable batching). Defaults to one frame, since the events are only
+	 * processed once per frame anyway.
+	 */
+	public static final String REPORTLATENCY = "de.onyxbits.sensorreadout.ReportLatency";
+
+	/**
+	 * How many seconds of samples to keep in memory, unless told otherwise.
+	 */
+	public static final int DEFAULT_RETENTION_SECONDS = 600;
+
+	/**
+	 * How often to update the statistics overlay, in nanoseconds
+	 */
+	private static final long STATISTICSINTERVAL = 500000000L;
+
+	/**
+	 * How many seconds a spectral peak keeps the amplitude axis stretched
+	 */
+	private static final int SPECTRUMHOLD = 2;
+
+	/**
+	 * Stands for "no accuracy known", no <code>Sensor</code> reports it
 	 */
-	public static final int SAMPLERATE = 10;
+	private static final int NOACCURACY = Integer.MIN_VALUE;
 
 	/**
 	 * The <code>Sensor</code> we are dealing with
@@ -59,7 +127,7 @@ public class ReadoutActivity extends Activity implements View.OnTouchListener {
 	/**
 	 * The displaying component
 	 */
-	private GraphicalView chartView;
+	private IChartView chartView;
 
 	/**
 	 * Dataset of the graphing component
@@ -72,30 +140,69 @@ public class ReadoutActivity extends Activity implements View.OnTouchListener {
 	private XYMultipleSeriesRenderer renderer;
 
 	/**
-	 * Our <code>SensorManager</code>
+	 * The service doing the actual recording (null while not bound)
+	 */
+	private RecordingService recorder;
+
+	/**
+	 * The displaying component in spectrum mode (null until first needed)
+	 */
+	private IChartView spectrumView;
+
+	/**
+	 * Dataset of the spectrum graph
+	 */
+	private XYMultipleSeriesDataset spectrumData;
+
+	/**
+	 * Renderer of the spectrum graph
 	 */
-	private SensorManager sensorManager;
+	private XYMultipleSeriesRenderer spectrumRenderer;
 
 	/**
-	 * Data channels. Corresponds to <code>SensorEvent.values</code>. Individual
-	 * channels may be set to null to indicate that they must not be painted.
+	 * Amplitude axis bounds of the spectrum graph
 	 */
-	private XYSeries channel[];
+	private AutoRange spectrumRange = new AutoRange(SPECTRUMHOLD);
 
 	/**
-	 * The ticker thread takes care of updating the UI
+	 * Whether the spectra are to be shown instead of the time line
 	 */
-	private Thread ticker;
+	private boolean showSpectrum;
 
 	/**
-	 * For moving the viewport of the graph
+	 * Accuracy the chart title was made for (NOACCURACY if none yet)
 	 */
-	private int xTick = 0;
+	private int titleAccuracy = NOACCURACY;
 
 	/**
-	 * For moving the viewport of the grpah
+	 * Whether the user was told about lost events
 	 */
-	private int lastMinX = 0;
+	private boolean droppedReported;
+
+	/**
+	 * Overlay for the channel statistics (null until the graph is shown)
+	 */
+	private TextView statisticsView;
+
+	/**
+	 * Whether the statistics overlay is to be shown
+	 */
+	private boolean showStatistics;
+
+	/**
+	 * Frame time of the last statistics overlay update, in nanoseconds
+	 */
+	private long lastStatistics;
+
+	/**
+	 * Reused for formatting the statistics overlay
+	 */
+	private StringBuilder statisticsText = new StringBuilder();
+
+	/**
+	 * Formats into <code>statisticsText</code>
+	 */
+	private Formatter statisticsFormatter = new Formatter(statisticsText);
 
 	@Override
 	public boolean onCreateOptionsMenu(Menu menu) {
@@ -107,23 +214,53 @@ public class ReadoutActivity extends Activity implements View.OnTouchListener {
 	public void onCreate(Bundle savedInstanceState) {
 		super.onCreate(savedInstanceState);
 		requestWindowFeature(Window.FEATURE_PROGRESS);
-		sensorManager = (SensorManager) getSystemService(SENSOR_SERVICE);
+		SensorManager sensorManager = (SensorManager) getSystemService(SENSOR_SERVICE);
 		int idx = getIntent().getIntExtra(SENSORINDEX, 0);
 		sensor = sensorManager.getSensorList(Sensor.TYPE_ALL).get(idx);
 		setTitle(sensor.getName());
 
 		sensorData = new XYMultipleSeriesDataset();
 		renderer = new XYMultipleSeriesRenderer();
+		styleRenderer(renderer);
+		renderer.setXAxisMin(0.0);
+		renderer.setXTitle(getString(R.string.axis_time));
+		renderer.setXAxisMax(VIEWPORT);
+		renderer.setXLabels(VIEWPORT); // 1 second per DIV
+		// Live data only ever moves the viewport forward, so it can be scrolled.
+		renderer.setStripChart(true);
+		if (getIntent().getBooleanExtra(RENDERTHREAD, true)) {
+			chartView = ChartFactory.getLineChartSurfaceView(this, sensorData,
+					renderer);
+		}
+		else {
+			chartView = ChartFactory.getLineChartView(this, sensorData, renderer);
+		}
+		chartView.setMaxFrameRate(FRAMERATE);
+		chartView.setFrameListener(this);
+		((View) chartView).setOnTouchListener(this);
+		setContentView(R.layout.readout_pending);
+
+		if (savedInstanceState == null) {
+			// The service ignores this if it is still recording, e.g. when we got
+			// here through its notification.
+			Intent intent = new Intent(this, RecordingService.class);
+			intent.putExtras(getIntent());
+			startService(intent);
+		}
+	}
+
+	/**
+	 * Apply the look that the time line and the spectrum graph share
+	 *
+	 * @param renderer
+	 *          the renderer to style
+	 */
+	private void styleRenderer(XYMultipleSeriesRenderer renderer) {
 		renderer.setGridColor(Color.DKGRAY);
 		renderer.setShowGrid(true);
-		renderer.setXAxisMin(0.0);
-		renderer.setXTitle(getString(R.string.samplerate, 1000 / SAMPLERATE));
-		renderer.setXAxisMax(10000 / (1000 / SAMPLERATE)); // 10 seconds wide
-		renderer.setXLabels(10); // 1 second per DIV
 		renderer.setChartTitle(" ");
 		renderer.setYLabelsAlign(Paint.Align.RIGHT);
-		chartView = ChartFactory.getLineChartView(this, sensorData, renderer);
-		chartView.setOnTouchListener(this);
+		renderer.setLayerCacheEnabled(true);
 		float textSize = new TextView(this).getTextSize();
 		float upscale = textSize / renderer.getLegendTextSize();
 		renderer.setLabelsTextSize(textSize);
@@ -136,7 +273,13 @@ public class ReadoutActivity extends Activity implements View.OnTouchListener {
 		margins[1] *= upscale;
 		margins[2] = (int) (2 * renderer.getLegendTextSize());
 		renderer.setMargins(margins);
-		setContentView(R.layout.readout_pending);
+	}
+
+	@Override
+	protected void onStart() {
+		super.onStart();
+		bindService(new Intent(this, RecordingService.class), this,
+				BIND_AUTO_CREATE);
 	}
 
 	@Override
@@ -155,19 +298,24 @@ public class ReadoutActivity extends Activity implements View.OnTouchListener {
 				break;
 			}
 		}
-
-		if (xTick == 0) {
-			ticker = new Ticker(this);
-			ticker.start();
-			sensorManager.registerListener((SensorEventListener) ticker, sensor,
-					SensorManager.SENSOR_DELAY_UI);
-		}
 	}
 
 	@Override
-	protected void onPause() {
-		super.onPause();
-		stopSampling();
+	protected void onStop() {
+		super.onStop();
+		// Recording goes on in the background. Only a stopped recording is gone
+		// for good once the user leaves.
+		if (recorder != null) {
+			recorder.detach(chartView);
+			if (spectrumView != null) {
+				recorder.detach(spectrumView);
+			}
+			if (isFinishing() && !recorder.isRecording()) {
+				recorder.stopSelf();
+			}
+		}
+		unbindService(this);
+		recorder = null;
 	}
 
 	@Override
@@ -175,7 +323,24 @@ public class ReadoutActivity extends Activity implements View.OnTouchListener {
 		switch (item.getItemId()) {
 			case R.id.share: {
 				stopSampling();
-				new ExportTask(this).execute(sensorData);
+				if (recorder != null) {
+					new ExportTask(this, recorder.getSpill(), recorder.getStatistics())
+							.execute(sensorData);
+				}
+				break;
+			}
+			case R.id.statistics: {
+				showStatistics = !item.isChecked();
+				item.setChecked(showStatistics);
+				if (statisticsView != null) {
+					statisticsView.setVisibility(showStatistics ? View.VISIBLE : View.GONE);
+					updateStatistics();
+				}
+				break;
+			}
+			case R.id.spectrum: {
+				setSpectrumShown(!item.isChecked());
+				item.setChecked(showSpectrum);
 				break;
 			}
 			case R.id.restart: {
@@ -202,11 +367,11 @@ public class ReadoutActivity extends Activity implements View.OnTouchListener {
 
 	@Override
 	public boolean onTouch(View v, MotionEvent event) {
-		// channel!=null -> need to ensure that configure() has been called before
-		// the user is allowed to abort (can happen by an accidental doubletap on
+		// Series added -> need to ensure that the channels are shown before the
+		// user is allowed to abort (can happen by an accidental doubletap on
 		// app start). Otherwise the screen will just stay black, making the app
 		// appear to hang.
-		if (v == chartView && ticker != null && channel != null) {
+		if (v == chartView && recorder != null && sensorData.getSeriesCount() > 0) {
 			// Design decision: When the user pans the view, s/he will (likely) no
 			// longer see the point of data entry. We might as well stop sampling
 			// then, since the user will (likely) not want to bother finding that
@@ -220,36 +385,95 @@ public class ReadoutActivity extends Activity implements View.OnTouchListener {
 		return v.onTouchEvent(event);
 	}
 
+	// Interface: ServiceConnection
+	public void onServiceConnected(ComponentName name, IBinder binder) {
+		recorder = ((RecordingService.LocalBinder) binder).getService();
+		if (recorder.getSensor() != null) {
+			sensor = recorder.getSensor();
+			setTitle(sensor.getName());
+			titleAccuracy = NOACCURACY;
+		}
+		recorder.attach(chartView);
+		setSpectrumShown(showSpectrum);
+		// Show what was recorded while we were away
+		chartView.repaint();
+	}
+
+	// Interface: ServiceConnection
+	public void onServiceDisconnected(ComponentName name) {
+		recorder = null;
+	}
+
 	/**
-	 * Periodically called by the ticker
-	 * 
-	 * @param currentEvent
-	 *          current sensor data.
+	 * Called before a frame is drawn, to bring the viewport up to date with the
+	 * recording.
 	 */
-	protected void onTick(SensorEvent currentEvent) {
+	// Interface: FrameScheduler.FrameListener
+	public void onFrame(long frameTimeNanos, int changes) {
+		if (recorder == null) {
+			return;
+		}
+		XYSeries[] channel = recorder.getChannels();
+		if (channel == null) {
+			// No event yet
+			return;
+		}
 
-		if (xTick == 0) {
-			// Dirty, but we only learn a few things after getting the first event.
-			configure(currentEvent);
-			setContentView(chartView);
+		if (sensorData.getSeriesCount() == 0) {
+			configure(channel);
+			setContentView(R.layout.readout);
+			((ViewGroup) findViewById(R.id.readout)).addView((View) chartView, 0);
+			statisticsView = (TextView) findViewById(R.id.statistics);
+			statisticsView.setVisibility(showStatistics ? View.VISIBLE : View.GONE);
+			setSpectrumShown(showSpectrum);
 		}
 
-		if (xTick > renderer.getXAxisMax()) {
-			renderer.setXAxisMax(xTick);
-			renderer.setXAxisMin(++lastMinX);
+		double x = channel[0].getMaxX();
+		if (x > renderer.getXAxisMax()) {
+			renderer.setXAxisMax(x);
+			renderer.setXAxisMin(x - VIEWPORT);
 		}
 
-		fitYAxis(currentEvent);
+		AutoRange yRange = recorder.getYRange();
+		yRange.update();
+		double minY = yRange.getMin(), maxY = yRange.getMax();
+		if (minY <= maxY) {
+			renderer.setYAxisMin(minY);
+			renderer.setYAxisMax(maxY);
+		}
 
-		for (int i = 0; i < channel.length; i++) {
-			if (channel[i] != null) {
-				channel[i].add(xTick, currentEvent.values[i]);
-			}
+		// The title only changes with the accuracy, no need to build it per frame.
+		int accuracy = recorder.getAccuracy();
+		if (accuracy != titleAccuracy) {
+			titleAccuracy = accuracy;
+			updateTitle(accuracy);
+		}
+		if (spectrumView != null && showSpectrum) {
+			updateSpectrumAxes(x);
 		}
 
-		xTick++;
+		long dropped = recorder.getDropped();
+		if (dropped > 0 && !droppedReported) {
+			droppedReported = true;
+			Toast.makeText(this, getString(R.string.msg_dropped, dropped),
+					Toast.LENGTH_LONG).show();
+		}
 
-		switch (currentEvent.accuracy) {
+		if (showStatistics && frameTimeNanos - lastStatistics >= STATISTICSINTERVAL) {
+			lastStatistics = frameTimeNanos;
+			updateStatistics();
+		}
+		// No repaint() needed, the frame that called us is about to be drawn.
+	}
+
+	/**
+	 * Show the accuracy of the <code>Sensor</code> as the chart title
+	 *
+	 * @param accuracy
+	 *          the accuracy of the most recent event
+	 */
+	private void updateTitle(int accuracy) {
+		switch (accuracy) {
 			case SensorManager.SENSOR_STATUS_ACCURACY_HIGH: {
 				renderer.setChartTitle(getString(R.string.sensor_accuracy_high));
 				break;
@@ -267,148 +491,161 @@ public class ReadoutActivity extends Activity implements View.OnTouchListener {
 				break;
 			}
 		}
-		chartView.repaint();
 	}
 
 	/**
-	 * Stop sampling
+	 * Switch between the time line and the spectrum graph. Takes effect once
+	 * the graph is shown, if it is not yet.
+	 *
+	 * @param shown
+	 *          true for the spectrum graph
 	 */
-	private void stopSampling() {
-		try {
-			sensorManager.unregisterListener((SensorEventListener) ticker);
-			ticker.interrupt();
-			ticker.join();
-			ticker = null;
-			Toast.makeText(this, R.string.msg_stopped, Toast.LENGTH_SHORT).show();
+	private void setSpectrumShown(boolean shown) {
+		showSpectrum = shown;
+		if (recorder == null || sensorData.getSeriesCount() == 0) {
+			return;
 		}
-		catch (Exception e) {
+		if (spectrumView == null) {
+			if (!shown) {
+				return;
+			}
+			createSpectrumView(recorder.getSpectrum());
+		}
+		IChartView view = shown ? spectrumView : chartView;
+		ViewGroup frame = (ViewGroup) findViewById(R.id.readout);
+		if (frame.getChildAt(0) != view) {
+			frame.removeViewAt(0);
+			frame.addView((View) view, 0);
 		}
+		recorder.attach(view, shown);
+		view.repaint();
 	}
 
 	/**
-	 * Make sure the Y axis is large enough to display the graph
-	 * 
-	 * @param event
-	 *          current event
+	 * Build the spectrum graph
+	 *
+	 * @param analyzer
+	 *          provides the spectra to show
 	 */
-	private void fitYAxis(SensorEvent event) {
-		double min = renderer.getYAxisMin(), max = renderer.getYAxisMax();
-		for (int i = 0; i < channel.length; i++) {
-			if (event.values[i] < min) {
-				min = event.values[i];
-			}
-			if (event.values[i] > max) {
-				max = event.values[i];
-			}
+	private void createSpectrumView(SpectrumAnalyzer analyzer) {
+		spectrumData = new XYMultipleSeriesDataset();
+		spectrumRenderer = new XYMultipleSeriesRenderer();
+		styleRenderer(spectrumRenderer);
+		spectrumRenderer.setXTitle(getString(R.string.axis_frequency));
+		spectrumRenderer.setYTitle(recorder.getYTitle());
+		spectrumRenderer.setXAxisMin(0);
+		spectrumRenderer.setYAxisMin(0);
+		// The axes follow the spectra, there is nothing to pan or zoom.
+		spectrumRenderer.setPanEnabled(false, false);
+		spectrumRenderer.setZoomEnabled(false, false);
+		SpectrumSeries[] spectra = analyzer.getSpectra();
+		for (int i = 0; i < spectra.length; i++) {
+			spectrumData.addSeries(spectra[i]);
+			// Same colors as the time line
+			spectrumRenderer.addSeriesRenderer(renderer.getSeriesRendererAt(i));
 		}
-		float sum = 0;
-		for (int i = 0; i < event.values.length; i++) {
-			sum += event.values[i];
+		if (getIntent().getBooleanExtra(RENDERTHREAD, true)) {
+			spectrumView = ChartFactory.getSpectrumChartSurfaceView(this,
+					spectrumData, spectrumRenderer);
 		}
-		double half = 0;
-		if (xTick == 0 && sum == event.values[0] * event.values.length) {
-			// If the plot flatlines on the first event, we can't grade the Y axis.
-			// This is especially bad if the sensor does not change without a
-			// stimulus. the graph will then flatline on the x-axis where it is
-			// impossible to be seen.
-			half = event.values[0] * 0.5 + 1;
+		else {
+			spectrumView = ChartFactory.getSpectrumChartView(this, spectrumData,
+					spectrumRenderer);
 		}
-		renderer.setYAxisMax(max + half);
-		renderer.setYAxisMin(min - half);
+		spectrumView.setMaxFrameRate(FRAMERATE);
+		spectrumView.setFrameListener(this);
 	}
 
 	/**
-	 * Final configuration step. Must be called between receiving the first
-	 * <code>SensorEvent</code> and updating the graph for the first time.
-	 * 
-	 * @param event
-	 *          the event
-	 */
-	private void configure(SensorEvent event) {
-		String[] channelNames = new String[event.values.length];
-		channel = new XYSeries[event.values.length];
-		for (int i = 0; i < channelNames.length; i++) {
-			channelNames[i] = getString(R.string.channel_default) + i;
+	 * Fit the spectrum graph to the current spectra
+	 *
+	 * @param x
+	 *          current X value of the time line, in seconds
+	 */
+	private void updateSpectrumAxes(double x) {
+		double maxX = 0, maxY = 0;
+		for (int i = 0; i < spectrumData.getSeriesCount(); i++) {
+			XYSeries spectrum = spectrumData.getSeriesAt(i);
+			if (spectrum.getItemCount() > 0) {
+				maxX = Math.max(maxX, spectrum.getMaxX());
+				maxY = Math.max(maxY, spectrum.getMaxY());
+			}
+		}
+		if (maxX <= 0) {
+			// No spectrum yet
+			return;
 		}
+		spectrumRenderer.setXAxisMax(maxX);
+		spectrumRange.add(x, 0, maxY);
+		spectrumRange.update();
+		spectrumRenderer.setYAxisMax(spectrumRange.getMax());
+	}
 
-		switch (event.sensor.getType()) {
-			case Sensor.TYPE_ACCELEROMETER: {
-				channelNames[0] = getString(R.string.channel_x_axis);
-				channelNames[1] = getString(R.string.channel_y_axis);
-				channelNames[2] = getString(R.string.channel_z_axis);
-				renderer.setYTitle(getString(R.string.unit_acceleration));
-				break;
-			}
-			case Sensor.TYPE_GRAVITY: {
-				channelNames[0] = getString(R.string.channel_x_axis);
-				channelNames[1] = getString(R.string.channel_y_axis);
-				channelNames[2] = getString(R.string.channel_z_axis);
-				renderer.setYTitle(getString(R.string.unit_acceleration));
-				break;
-			}
-			case Sensor.TYPE_GYROSCOPE: {
-				channelNames[0] = getString(R.string.channel_x_axis);
-				channelNames[1] = getString(R.string.channel_y_axis);
-				channelNames[2] = getString(R.string.channel_z_axis);
-				renderer.setYTitle(getString(R.string.unit_gyro));
-				break;
-			}
-			case Sensor.TYPE_LIGHT: {
-				channel = new XYSeries[1];
-				channelNames[0] = getString(R.string.channel_light);
-				renderer.setYTitle(getString(R.string.unit_light));
-				break;
-			}
-			case Sensor.TYPE_LINEAR_ACCELERATION: {
-				channelNames[0] = getString(R.string.channel_x_axis);
-				channelNames[1] = getString(R.string.channel_y_axis);
-				channelNames[2] = getString(R.string.channel_z_axis);
-				renderer.setYTitle(getString(R.string.unit_acceleration));
-				break;
-			}
-			case Sensor.TYPE_MAGNETIC_FIELD: {
-				channelNames[0] = getString(R.string.channel_x_axis);
-				channelNames[1] = getString(R.string.channel_y_axis);
-				channelNames[2] = getString(R.string.channel_z_axis);
-				renderer.setYTitle(getString(R.string.unit_magnetic));
-				break;
-			}
-			case Sensor.TYPE_PRESSURE: {
-				channel = new XYSeries[1];
-				channelNames[0] = getString(R.string.channel_pressure);
-				renderer.setYTitle(getString(R.string.unit_pressure));
-				break;
-			}
-			case Sensor.TYPE_PROXIMITY: {
-				channel = new XYSeries[1];
-				channelNames[0] = getString(R.string.channel_distance);
-				renderer.setYTitle(getString(R.string.unit_distance));
-				break;
-			}
-			case Sensor.TYPE_ROTATION_VECTOR: {
-				channelNames[0] = getString(R.string.channel_x_axis);
-				channelNames[1] = getString(R.string.channel_y_axis);
-				channelNames[2] = getString(R.string.channel_z_axis);
-				break;
-			}
-			case Sensor.TYPE_ORIENTATION: {
-				channelNames[0] = getString(R.string.channel_azimuth);
-				channelNames[1] = getString(R.string.channel_pitch);
-				channelNames[2] = getString(R.string.channel_roll);
-				break;
-			}
-			case 7:
-			case 13: {
-				// Dirty hack: TYPE_TEMPERATURE became deprecated in favour of
-				// TYPE_AMBIENT_TEMPERATURE. By
-				// using the numeric instead of the symbolic constants, we can easily
-				// compile for pre- and
-				// post API level 14.
-				renderer.setYTitle(getString(R.string.unit_temperature));
-				break;
-			}
+	/**
+	 * Show the current channel statistics in the overlay
+	 */
+	private void updateStatistics() {
+		ChannelStatistics statistics = recorder == null ? null : recorder
+				.getStatistics();
+		if (statisticsView == null || statistics == null) {
+			return;
+		}
+		statisticsText.setLength(0);
+		statisticsFormatter.format("%-6s %-4s %8s %8s %8s %8s", "", "",
+				getString(R.string.stats_mean), getString(R.string.stats_deviation),
+				getString(R.string.stats_rms), getString(R.string.stats_peak_to_peak));
+		String window = getString(R.string.stats_window, VIEWPORT);
+		String session = getString(R.string.stats_session);
+		for (int i = 0; i < statistics.getChannelCount(); i++) {
+			appendStatistics(statistics, i, sensorData.getSeriesAt(i).getTitle(),
+					window, true);
+			appendStatistics(statistics, i, "", session, false);
 		}
+		statisticsView.setText(statisticsText.toString());
+	}
+
+	/**
+	 * Add one line to the statistics overlay
+	 *
+	 * @param statistics
+	 *          the figures
+	 * @param channel
+	 *          the channel to show
+	 * @param title
+	 *          name of the channel
+	 * @param label
+	 *          name of the time span
+	 * @param windowed
+	 *          true for the viewport, false for the whole session
+	 */
+	private void appendStatistics(ChannelStatistics statistics, int channel,
+			String title, String label, boolean windowed) {
+		statisticsFormatter.format("\n%-6.6s %-4s %8.3g %8.3g %8.3g %8.3g", title,
+				label, statistics.getMean(channel, windowed),
+				statistics.getStandardDeviation(channel, windowed),
+				statistics.getRms(channel, windowed),
+				statistics.getPeakToPeak(channel, windowed));
+	}
 
+	/**
+	 * Stop sampling
+	 */
+	private void stopSampling() {
+		if (recorder != null && recorder.isRecording()) {
+			recorder.stopRecording();
+			Toast.makeText(this, R.string.msg_stopped, Toast.LENGTH_SHORT).show();
+		}
+	}
+
+	/**
+	 * Final configuration step. Must be called once the recording has its
+	 * channels and before updating the graph for the first time.
+	 * 
+	 * @param channel
+	 *          the channels of the recording. Null channels are not painted.
+	 */
+	private void configure(XYSeries[] channel) {
+		renderer.setYTitle(recorder.getYTitle());
 		int[] colors = {
 				Color.RED,
 				Color.YELLOW,
@@ -417,12 +654,15 @@ public class ReadoutActivity extends Activity implements View.OnTouchListener {
 				Color.MAGENTA,
 				Color.CYAN };
 		for (int i = 0; i < channel.length; i++) {
-			channel[i] = new XYSeries(channelNames[i]);
+			if (channel[i] == null) {
+				continue;
+			}
 			sensorData.addSeries(channel[i]);
 			XYSeriesRenderer r = new XYSeriesRenderer();
 			r.setColor(colors[i % colors.length]);
+			r.setDecimation(XYSeriesRenderer.Decimation.M4);
 			renderer.addSeriesRenderer(r);
 		}
 	}
 
-}
\ No newline at end of file
+}
@@ -0,0 +1,680 @@
+/*
+   Copyright 2012 Patrick Ahlbrecht
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+
+package de.onyxbits.sensorreadout;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+
+import org.achartengine.IChartView;
+import org.achartengine.model.RingXYSeries;
+import org.achartengine.model.XYSeries;
+import org.achartengine.util.AutoRange;
+
+import android.app.Notification;
+import android.app.PendingIntent;
+import android.app.Service;
+import android.content.Intent;
+import android.hardware.Sensor;
+import android.hardware.SensorManager;
+import android.os.Binder;
+import android.os.Build;
+import android.os.Handler;
+import android.os.IBinder;
+import android.os.PowerManager;
+import android.widget.Toast;
+
+/**
+ * Records one <code>Sensor</code> in the foreground, so a capture goes on when
+ * the <code>ReadoutActivity</code> is not visible. The service owns the sensor
+ * registration and the channels. Samples are added to the channels on the
+ * capture thread, one batch at a time, and samples that exceed the retention
+ * limits are streamed to a spill file, so memory use stays bounded. The
+ * activity binds to the service and draws the channels, which can be read
+ * while the capture thread appends to them.
+ * <p>
+ * The service is started with the same extras as the
+ * <code>ReadoutActivity</code>. Starting it while it is recording has no
+ * effect, starting it after the recording stopped begins a new one.
+ */
+public class RecordingService extends Service {
+
+	/**
+	 * ID of the ongoing notification
+	 */
+	private static final int NOTIFICATIONID = 1;
+
+	/**
+	 * The <code>Sensor</code> being recorded (null until the first start)
+	 */
+	private Sensor sensor;
+
+	private SensorManager sensorManager;
+
+	/**
+	 * Keeps the CPU running while the screen is off
+	 */
+	private PowerManager.WakeLock wakeLock;
+
+	/**
+	 * For posting to the main thread
+	 */
+	private Handler mainHandler;
+
+	/**
+	 * Receives the events while recording (null otherwise)
+	 */
+	private Ticker ticker;
+
+	/**
+	 * Data channels. Corresponds to <code>SensorEvent.values</code>. Only
+	 * written by the capture thread, published once the first event arrived.
+	 */
+	private volatile XYSeries channel[];
+
+	/**
+	 * Label for the Y axis, matching the unit of the channels (may be null)
+	 */
+	private volatile String yTitle;
+
+	/**
+	 * Y axis bounds, following the values in the viewport
+	 */
+	private final AutoRange yRange = new AutoRange(ReadoutActivity.VIEWPORT);
+
+	/**
+	 * Noise and bias figures of the channels, null until the first event arrived
+	 */
+	private volatile ChannelStatistics statistics;
+
+	/**
+	 * Spectra of the channels, null until the first event arrived
+	 */
+	private volatile SpectrumAnalyzer spectrum;
+
+	/**
+	 * Accuracy of the most recent event
+	 */
+	private volatile int accuracy;
+
+	/**
+	 * Number of events lost because the capture buffer overflowed
+	 */
+	private volatile long dropped;
+
+	/**
+	 * The view to repaint after every batch (may be null)
+	 */
+	private volatile IChartView view;
+
+	/**
+	 * Whether the attached view shows the spectra
+	 */
+	private volatile boolean spectrumAttached;
+
+	/**
+	 * Number of samples received so far
+	 */
+	private int xTick;
+
+	/**
+	 * Timestamp of the first sample in nanoseconds. X values are seconds
+	 * relative to it.
+	 */
+	private long startTime;
+
+	/**
+	 * Maximum number of samples per channel to keep in memory (0 for no limit)
+	 */
+	private int retentionSamples;
+
+	/**
+	 * How many seconds of samples to keep in memory (0 for no limit)
+	 */
+	private int retentionSeconds;
+
+	/**
+	 * Whether evicted samples go to a spill file
+	 */
+	private boolean spillEnabled;
+
+	/**
+	 * Receives the evicted samples (null if they are to be discarded)
+	 */
+	private volatile SpillFile spill;
+
+	/**
+	 * Reused for taking one sample at a time out of the ticker's buffer
+	 */
+	private float[] values = new float[SampleBuffer.MAXVALUES];
+
+	/**
+	 * Handed out to the activity
+	 */
+	private final IBinder binder = new LocalBinder();
+
+	/**
+	 * Gives a bound activity direct access to the service, which runs in the
+	 * same process.
+	 */
+	public class LocalBinder extends Binder {
+
+		/**
+		 * @return the service
+		 */
+		public RecordingService getService() {
+			return RecordingService.this;
+		}
+	}
+
+	@Override
+	public void onCreate() {
+		super.onCreate();
+		sensorManager = (SensorManager) getSystemService(SENSOR_SERVICE);
+		PowerManager pm = (PowerManager) getSystemService(POWER_SERVICE);
+		wakeLock = pm.newWakeLock(PowerManager.PARTIAL_WAKE_LOCK, "Recording");
+		wakeLock.setReferenceCounted(false);
+		mainHandler = new Handler();
+		// The live graph is a strip chart, which redraws all of its plot whenever
+		// the Y axis changes. Moving it in a few big steps keeps it scrolling.
+		yRange.setSmoothing(1);
+		yRange.setHeadroom(0.25);
+	}
+
+	@Override
+	public int onStartCommand(Intent intent, int flags, int startId) {
+		if (intent != null && ticker == null) {
+			startRecording(intent);
+		}
+		// Restarting after being killed would only produce a new, unrelated
+		// capture.
+		return START_NOT_STICKY;
+	}
+
+	@Override
+	public IBinder onBind(Intent intent) {
+		return binder;
+	}
+
+	@Override
+	public void onDestroy() {
+		super.onDestroy();
+		stopRecording();
+		if (spill != null) {
+			spill.delete();
+			spill = null;
+		}
+	}
+
+	/**
+	 * @return the sensor being recorded, null if the service was never started
+	 */
+	public Sensor getSensor() {
+		return sensor;
+	}
+
+	/**
+	 * @return true while the sensor is being recorded
+	 */
+	public boolean isRecording() {
+		return ticker != null;
+	}
+
+	/**
+	 * @return the channels, null until the first event arrived. Individual
+	 *         channels may be null to indicate that they must not be painted.
+	 */
+	public XYSeries[] getChannels() {
+		return channel;
+	}
+
+	/**
+	 * @return label for the Y axis (may be null)
+	 */
+	public String getYTitle() {
+		return yTitle;
+	}
+
+	/**
+	 * @return Y axis bounds for the values in the viewport. Thread safe.
+	 */
+	public AutoRange getYRange() {
+		return yRange;
+	}
+
+	/**
+	 * @return statistics of the channels, null until the first event arrived.
+	 *         Thread safe.
+	 */
+	public ChannelStatistics getStatistics() {
+		return statistics;
+	}
+
+	/**
+	 * @return spectrum analyzer of the channels, null until the first event
+	 *         arrived
+	 */
+	public SpectrumAnalyzer getSpectrum() {
+		return spectrum;
+	}
+
+	/**
+	 * @return accuracy of the most recent event
+	 */
+	public int getAccuracy() {
+		return accuracy;
+	}
+
+	/**
+	 * @return number of events lost so far because the capture thread did not
+	 *         keep up with the sensor
+	 */
+	public long getDropped() {
+		return dropped;
+	}
+
+	/**
+	 * @return the samples that were evicted from the channels (may be null)
+	 */
+	public SpillFile getSpill() {
+		return spill;
+	}
+
+	/**
+	 * Attach a view to visualize the recording
+	 *
+	 * @param view
+	 *          the view to repaint whenever new samples arrived, null to detach.
+	 */
+	public void attach(IChartView view) {
+		attach(view, false);
+	}
+
+	/**
+	 * Attach a view to visualize the recording. The spectra are only computed
+	 * while a view that shows them is attached.
+	 *
+	 * @param view
+	 *          the view to repaint whenever new samples arrived, null to detach.
+	 * @param spectrum
+	 *          true if the view shows the spectra
+	 */
+	public synchronized void attach(IChartView view, boolean spectrum) {
+		this.view = view;
+		spectrumAttached = spectrum;
+		SpectrumAnalyzer analyzer = this.spectrum;
+		if (analyzer != null) {
+			analyzer.setEnabled(spectrum);
+		}
+	}
+
+	/**
+	 * Detach a view, unless another one was attached in the meantime. A
+	 * finishing <code>Activity</code> may only get stopped after its successor
+	 * attached itself.
+	 *
+	 * @param view
+	 *          the view to no longer repaint
+	 */
+	public synchronized void detach(IChartView view) {
+		if (this.view == view) {
+			attach(null, false);
+		}
+	}
+
+	/**
+	 * Stop recording. The channels are kept.
+	 */
+	public void stopRecording() {
+		if (ticker == null) {
+			return;
+		}
+		sensorManager.unregisterListener(ticker);
+		ticker.stop();
+		ticker = null;
+		wakeLock.release();
+		stopForeground(true);
+	}
+
+	/**
+	 * Start a new recording, discarding the previous one.
+	 *
+	 * @param intent
+	 *          carries the <code>ReadoutActivity</code> extras
+	 */
+	private void startRecording(Intent intent) {
+		int idx = intent.getIntExtra(ReadoutActivity.SENSORINDEX, 0);
+		sensor = sensorManager.getSensorList(Sensor.TYPE_ALL).get(idx);
+		retentionSamples = intent.getIntExtra(ReadoutActivity.RETENTION_SAMPLES, 0);
+		retentionSeconds = intent.getIntExtra(ReadoutActivity.RETENTION_SECONDS,
+				ReadoutActivity.DEFAULT_RETENTION_SECONDS);
+		spillEnabled = intent.getBooleanExtra(ReadoutActivity.SPILL, true);
+		if (spill != null) {
+			spill.delete();
+			spill = null;
+		}
+		channel = null;
+		statistics = null;
+		spectrum = null;
+		yTitle = null;
+		yRange.clear();
+		xTick = 0;
+		dropped = 0;
+
+		startForeground(NOTIFICATIONID, buildNotification(intent));
+		wakeLock.acquire();
+		ticker = new Ticker(this);
+		SensorBatching.registerListener(sensorManager, ticker, sensor,
+				SensorManager.SENSOR_DELAY_FASTEST, getReportLatency(intent),
+				ticker.getHandler());
+	}
+
+	/**
+	 * Build the ongoing notification, which brings the user back to the
+	 * readout.
+	 *
+	 * @param intent
+	 *          carries the <code>ReadoutActivity</code> extras
+	 * @return the notification
+	 */
+	@SuppressWarnings("deprecation")
+	private Notification buildNotification(Intent intent) {
+		Intent readout = new Intent(this, ReadoutActivity.class);
+		readout.putExtras(intent);
+		PendingIntent pending = PendingIntent.getActivity(this, 0, readout,
+				PendingIntent.FLAG_UPDATE_CURRENT);
+		CharSequence title = getString(R.string.msg_recording);
+		if (Build.VERSION.SDK_INT >= 11) {
+			return new Notification.Builder(this).setSmallIcon(R.drawable.ic_launcher)
+					.setContentTitle(title).setContentText(sensor.getName())
+					.setContentIntent(pending).setOngoing(true).getNotification();
+		}
+		Notification notification = new Notification(R.drawable.ic_launcher,
+				title, System.currentTimeMillis());
+		notification.setLatestEventInfo(this, title, sensor.getName(), pending);
+		return notification;
+	}
+
+	/**
+	 * Figure out how long the <code>Sensor</code> may hold back its events
+	 *
+	 * @param intent
+	 *          carries the <code>ReadoutActivity</code> extras
+	 * @return maximum report latency in microseconds
+	 */
+	private int getReportLatency(Intent intent) {
+		long latency = intent.getIntExtra(ReadoutActivity.REPORTLATENCY,
+				1000 / ReadoutActivity.FRAMERATE) * 1000L;
+		if (sensor.getMinDelay() > 0) {
+			// A burst must not overflow the ticker's buffer.
+			latency = Math.min(latency, (long) sensor.getMinDelay()
+					* Ticker.BUFFERSIZE / 2);
+		}
+		return (int) Math.max(0, latency);
+	}
+
+	/**
+	 * Called by the ticker on the capture thread, once per batch
+	 *
+	 * @param samples
+	 *          sensor data received since the last tick. All of it is consumed.
+	 */
+	protected void onTick(SampleBuffer samples) {
+		int count = samples.size();
+
+		if (xTick == 0) {
+			// Dirty, but we only learn a few things after getting the first event.
+			configure(Math.min(samples.getValues(0, values), values.length));
+			startTime = samples.getTimestamp(0);
+		}
+
+		XYSeries[] channel = this.channel;
+		ChannelStatistics statistics = this.statistics;
+		SpectrumAnalyzer spectrum = this.spectrum;
+		for (int s = 0; s < count; s++) {
+			samples.getValues(s, values);
+			double x = (samples.getTimestamp(s) - startTime) / 1000000000d;
+			// Some drivers deliver timestamps out of order, the channels must stay
+			// sorted. The series steps an equal X past the last one.
+			x = Math.max(x, channel[0].getMaxX());
+
+			fitYAxis(x, values);
+			statistics.add(x, values);
+			spectrum.add(x, values);
+
+			while (isRetentionExceeded(x)) {
+				evictOldest();
+			}
+
+			for (int i = 0; i < channel.length; i++) {
+				if (channel[i] != null) {
+					channel[i].add(x, values[i]);
+				}
+			}
+
+			xTick++;
+		}
+
+		accuracy = samples.getAccuracy(count - 1);
+		dropped = samples.getDropped();
+		samples.remove(count);
+		spectrum.update();
+
+		IChartView view = this.view;
+		if (view != null) {
+			view.repaint();
+		}
+	}
+
+	/**
+	 * Check whether the oldest sample has to go before adding a new one
+	 *
+	 * @param x
+	 *          X value of the sample about to be added
+	 * @return true if the retention policy requires evicting the oldest sample
+	 */
+	private boolean isRetentionExceeded(double x) {
+		int size = channel[0].getItemCount();
+		if (size == 0) {
+			return false;
+		}
+		if (retentionSamples > 0 && size >= retentionSamples) {
+			return true;
+		}
+		return retentionSeconds > 0 && x - channel[0].getX(0) >= retentionSeconds;
+	}
+
+	/**
+	 * Remove the oldest sample from all channels, moving it to the spill file
+	 * if there is one.
+	 */
+	private void evictOldest() {
+		if (spill != null) {
+			try {
+				spill.spill(channel);
+			}
+			catch (IOException e) {
+				// Better to keep sampling without a history than not at all.
+				spill.delete();
+				spill = null;
+				toast(R.string.msg_spill_failed);
+			}
+		}
+		for (int i = 0; i < channel.length; i++) {
+			if (channel[i] != null) {
+				channel[i].remove(0);
+			}
+		}
+	}
+
+	/**
+	 * Keep track of the value range in the viewport. A flat line gets padded by
+	 * the range, so it does not end up on the edge of the plot.
+	 *
+	 * @param x
+	 *          X value of the sample
+	 * @param sample
+	 *          current sample values
+	 */
+	private void fitYAxis(double x, float[] sample) {
+		float min = sample[0], max = sample[0];
+		for (int i = 1; i < channel.length; i++) {
+			if (sample[i] < min) {
+				min = sample[i];
+			}
+			else if (sample[i] > max) {
+				max = sample[i];
+			}
+		}
+		yRange.add(x, min, max);
+	}
+
+	/**
+	 * Show a message from any thread
+	 *
+	 * @param resId
+	 *          the message
+	 */
+	private void toast(final int resId) {
+		mainHandler.post(new Runnable() {
+			public void run() {
+				Toast.makeText(RecordingService.this, resId, Toast.LENGTH_LONG).show();
+			}
+		});
+	}
+
+	/**
+	 * Final configuration step. Must be called between receiving the first
+	 * <code>SensorEvent</code> and adding it to the channels.
+	 *
+	 * @param valueCount
+	 *          number of values per event
+	 */
+	private void configure(int valueCount) {
+		String[] channelNames = new String[valueCount];
+		XYSeries[] channel = new XYSeries[valueCount];
+		String yTitle = null;
+		for (int i = 0; i < channelNames.length; i++) {
+			channelNames[i] = getString(R.string.channel_default) + i;
+		}
+
+		switch (sensor.getType()) {
+			case Sensor.TYPE_ACCELEROMETER: {
+				channelNames[0] = getString(R.string.channel_x_axis);
+				channelNames[1] = getString(R.string.channel_y_axis);
+				channelNames[2] = getString(R.string.channel_z_axis);
+				yTitle = getString(R.string.unit_acceleration);
+				break;
+			}
+			case Sensor.TYPE_GRAVITY: {
+				channelNames[0] = getString(R.string.channel_x_axis);
+				channelNames[1] = getString(R.string.channel_y_axis);
+				channelNames[2] = getString(R.string.channel_z_axis);
+				yTitle = getString(R.string.unit_acceleration);
+				break;
+			}
+			case Sensor.TYPE_GYROSCOPE: {
+				channelNames[0] = getString(R.string.channel_x_axis);
+				channelNames[1] = getString(R.string.channel_y_axis);
+				channelNames[2] = getString(R.string.channel_z_axis);
+				yTitle = getString(R.string.unit_gyro);
+				break;
+			}
+			case Sensor.TYPE_LIGHT: {
+				channel = new XYSeries[1];
+				channelNames[0] = getString(R.string.channel_light);
+				yTitle = getString(R.string.unit_light);
+				break;
+			}
+			case Sensor.TYPE_LINEAR_ACCELERATION: {
+				channelNames[0] = getString(R.string.channel_x_axis);
+				channelNames[1] = getString(R.string.channel_y_axis);
+				channelNames[2] = getString(R.string.channel_z_axis);
+				yTitle = getString(R.string.unit_acceleration);
+				break;
+			}
+			case Sensor.TYPE_MAGNETIC_FIELD: {
+				channelNames[0] = getString(R.string.channel_x_axis);
+				channelNames[1] = getString(R.string.channel_y_axis);
+				channelNames[2] = getString(R.string.channel_z_axis);
+				yTitle = getString(R.string.unit_magnetic);
+				break;
+			}
+			case Sensor.TYPE_PRESSURE: {
+				channel = new XYSeries[1];
+				channelNames[0] = getString(R.string.channel_pressure);
+				yTitle = getString(R.string.unit_pressure);
+				break;
+			}
+			case Sensor.TYPE_PROXIMITY: {
+				channel = new XYSeries[1];
+				channelNames[0] = getString(R.string.channel_distance);
+				yTitle = getString(R.string.unit_distance);
+				break;
+			}
+			case Sensor.TYPE_ROTATION_VECTOR: {
+				channelNames[0] = getString(R.string.channel_x_axis);
+				channelNames[1] = getString(R.string.channel_y_axis);
+				channelNames[2] = getString(R.string.channel_z_axis);
+				break;
+			}
+			case Sensor.TYPE_ORIENTATION: {
+				channelNames[0] = getString(R.string.channel_azimuth);
+				channelNames[1] = getString(R.string.channel_pitch);
+				channelNames[2] = getString(R.string.channel_roll);
+				break;
+			}
+			case 7:
+			case 13: {
+				// Dirty hack: TYPE_TEMPERATURE became deprecated in favour of
+				// TYPE_AMBIENT_TEMPERATURE. By
+				// using the numeric instead of the symbolic constants, we can easily
+				// compile for pre- and
+				// post API level 14.
+				yTitle = getString(R.string.unit_temperature);
+				break;
+			}
+		}
+
+		for (int i = 0; i < channel.length; i++) {
+			RingXYSeries series = new RingXYSeries(channelNames[i]);
+			series.setSummaryEnabled(true);
+			channel[i] = series;
+		}
+
+		if ((retentionSamples > 0 || retentionSeconds > 0) && spillEnabled) {
+			try {
+				spill = new SpillFile(new File(getCacheDir(), "spill.bin"), sensor,
+						Arrays.copyOf(channelNames, channel.length));
+			}
+			catch (IOException e) {
+				toast(R.string.msg_spill_failed);
+			}
+		}
+
+		this.yTitle = yTitle;
+		statistics = new ChannelStatistics(channel.length,
+				ReadoutActivity.VIEWPORT);
+		spectrum = new SpectrumAnalyzer(Arrays.copyOf(channelNames,
+				channel.length));
+		// Read after publishing the analyzer, so either this or attach() sees
+		// the other's write.
+		spectrum.setEnabled(spectrumAttached);
+		// Publishes the channels
+		this.channel = channel;
+	}
+}
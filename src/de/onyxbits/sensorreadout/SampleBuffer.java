@@ -0,0 +1,181 @@
+/*
+   Copyright 2012 Patrick Ahlbrecht
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+
+package de.onyxbits.sensorreadout;
+
+/**
+ * Lock free ring buffer for handing sensor samples from exactly one producer
+ * thread to exactly one consumer thread without allocating. The producer
+ * copies every event into the primitive arrays, the consumer peeks at the
+ * samples and removes them in batches.
+ */
+class SampleBuffer {
+
+	/**
+	 * Maximum number of values per sample. Surplus values are dropped.
+	 */
+	public static final int MAXVALUES = 16;
+
+	/**
+	 * Number of samples the buffer can hold
+	 */
+	private final int capacity;
+
+	private final long[] timestamps;
+
+	private final int[] accuracies;
+
+	private final int[] valueCounts;
+
+	/**
+	 * Sample values, <code>MAXVALUES</code> slots per sample
+	 */
+	private final float[] values;
+
+	/**
+	 * Number of samples ever added. Only written by the producer.
+	 */
+	private volatile long head;
+
+	/**
+	 * Number of samples ever removed. Only written by the consumer.
+	 */
+	private volatile long tail;
+
+	/**
+	 * Number of samples dropped because the buffer was full. Only written by
+	 * the producer.
+	 */
+	private volatile long dropped;
+
+	/**
+	 * Create a new buffer
+	 *
+	 * @param capacity
+	 *          number of samples the buffer can hold
+	 */
+	public SampleBuffer(int capacity) {
+		this.capacity = capacity;
+		timestamps = new long[capacity];
+		accuracies = new int[capacity];
+		valueCounts = new int[capacity];
+		values = new float[capacity * MAXVALUES];
+	}
+
+	/**
+	 * Add a sample. Must only be called by the producer thread.
+	 *
+	 * @param timestamp
+	 *          event timestamp in nanoseconds
+	 * @param sample
+	 *          the values of the event
+	 * @param accuracy
+	 *          the accuracy of the event
+	 * @return false if the buffer was full and the sample got dropped
+	 */
+	public boolean offer(long timestamp, float[] sample, int accuracy) {
+		long h = head;
+		if (h - tail == capacity) {
+			dropped++;
+			return false;
+		}
+		int slot = (int) (h % capacity);
+		int count = Math.min(sample.length, MAXVALUES);
+		timestamps[slot] = timestamp;
+		accuracies[slot] = accuracy;
+		valueCounts[slot] = count;
+		System.arraycopy(sample, 0, values, slot * MAXVALUES, count);
+		// Publishes the sample to the consumer
+		head = h + 1;
+		return true;
+	}
+
+	/**
+	 * @return number of samples the consumer may peek at
+	 */
+	public int size() {
+		return (int) (head - tail);
+	}
+
+	/**
+	 * @return number of samples dropped so far because the consumer did not
+	 *         keep up
+	 */
+	public long getDropped() {
+		return dropped;
+	}
+
+	/**
+	 * Peek at the timestamp of a sample. Must only be called by the consumer.
+	 *
+	 * @param offset
+	 *          position of the sample, 0 being the oldest one
+	 * @return timestamp in nanoseconds
+	 */
+	public long getTimestamp(int offset) {
+		return timestamps[slot(offset)];
+	}
+
+	/**
+	 * Peek at the accuracy of a sample. Must only be called by the consumer.
+	 *
+	 * @param offset
+	 *          position of the sample, 0 being the oldest one
+	 * @return event accuracy
+	 */
+	public int getAccuracy(int offset) {
+		return accuracies[slot(offset)];
+	}
+
+	/**
+	 * Peek at the values of a sample. Must only be called by the consumer.
+	 *
+	 * @param offset
+	 *          position of the sample, 0 being the oldest one
+	 * @param dest
+	 *          where to copy the values to
+	 * @return number of values in the sample (at most the length of dest are
+	 *         copied)
+	 */
+	public int getValues(int offset, float[] dest) {
+		int slot = slot(offset);
+		int count = valueCounts[slot];
+		System.arraycopy(values, slot * MAXVALUES, dest, 0,
+				Math.min(count, dest.length));
+		return count;
+	}
+
+	/**
+	 * Remove the oldest samples. Must only be called by the consumer.
+	 *
+	 * @param count
+	 *          number of samples to remove
+	 */
+	public void remove(int count) {
+		if (count < 0 || count > size()) {
+			throw new IllegalArgumentException("Cannot remove " + count);
+		}
+		// Hands the slots back to the producer
+		tail = tail + count;
+	}
+
+	private int slot(int offset) {
+		if (offset < 0 || offset >= size()) {
+			throw new IndexOutOfBoundsException("Offset: " + offset);
+		}
+		return (int) ((tail + offset) % capacity);
+	}
+}
@@ -0,0 +1,119 @@
+/*
+   Copyright 2012 Patrick Ahlbrecht
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+
+package de.onyxbits.sensorreadout;
+
+import java.lang.reflect.Method;
+
+import android.hardware.Sensor;
+import android.hardware.SensorEventListener;
+import android.hardware.SensorManager;
+import android.os.Handler;
+import android.util.Log;
+
+/**
+ * Access to the hardware FIFO of a <code>Sensor</code>. Sensors with a FIFO
+ * may hold back their events for a while and deliver them in a burst, so the
+ * CPU does not have to wake up for every single event. The API for this only
+ * exists on KitKat and later, so it is looked up by reflection.
+ */
+class SensorBatching {
+
+	private static final String TAG = "SensorBatching";
+
+	/**
+	 * <code>Sensor.getFifoMaxEventCount()</code> (null if not available)
+	 */
+	private static Method getFifoMaxEventCount;
+
+	/**
+	 * <code>SensorManager.registerListener(SensorEventListener, Sensor, int,
+	 * int, Handler)</code> (null if not available)
+	 */
+	private static Method registerListener;
+
+	static {
+		try {
+			getFifoMaxEventCount = Sensor.class.getMethod("getFifoMaxEventCount");
+			registerListener = SensorManager.class.getMethod("registerListener",
+					SensorEventListener.class, Sensor.class, int.class, int.class,
+					Handler.class);
+		}
+		catch (NoSuchMethodException e) {
+			// Pre KitKat. Events are always delivered one by one.
+			getFifoMaxEventCount = null;
+			registerListener = null;
+		}
+	}
+
+	private SensorBatching() {
+	}
+
+	/**
+	 * Query the size of the FIFO of a <code>Sensor</code>
+	 * 
+	 * @param sensor
+	 *          the sensor to check
+	 * @return maximum number of events the sensor can hold back, 0 if it cannot
+	 *         batch at all.
+	 */
+	public static int getFifoMaxEventCount(Sensor sensor) {
+		if (getFifoMaxEventCount == null) {
+			return 0;
+		}
+		try {
+			return (Integer) getFifoMaxEventCount.invoke(sensor);
+		}
+		catch (Exception e) {
+			Log.w(TAG, e);
+			return 0;
+		}
+	}
+
+	/**
+	 * Register a listener, letting the sensor batch its events if it has a
+	 * FIFO.
+	 * 
+	 * @param manager
+	 *          the manager to register with
+	 * @param listener
+	 *          the listener to register
+	 * @param sensor
+	 *          the sensor to listen to
+	 * @param rate
+	 *          one of the <code>SensorManager.SENSOR_DELAY_*</code> constants
+	 * @param maxReportLatencyUs
+	 *          how long the sensor may hold back events, in microseconds. 0
+	 *          disables batching.
+	 * @param handler
+	 *          the handler of the thread to deliver the events on
+	 * @return true if the listener was registered, with or without batching.
+	 */
+	public static boolean registerListener(SensorManager manager,
+			SensorEventListener listener, Sensor sensor, int rate,
+			int maxReportLatencyUs, Handler handler) {
+		if (maxReportLatencyUs > 0 && getFifoMaxEventCount(sensor) > 0) {
+			try {
+				return (Boolean) registerListener.invoke(manager, listener, sensor,
+						rate, maxReportLatencyUs, handler);
+			}
+			catch (Exception e) {
+				Log.w(TAG, e);
+			}
+		}
+		return manager.registerListener(listener, sensor, rate, handler);
+	}
+}
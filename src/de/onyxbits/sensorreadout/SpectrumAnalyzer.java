@@ -0,0 +1,161 @@
+/*
+   Copyright 2012 Patrick Ahlbrecht
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+
+package de.onyxbits.sensorreadout;
+
+import org.achartengine.model.SpectrumSeries;
+import org.achartengine.util.FFT;
+
+/**
+ * Computes the amplitude spectra of the most recent samples of every channel.
+ * Samples are fed in by the capture thread, which also recomputes the spectra
+ * every <code>HOP</code> new samples while the analyzer is enabled. All
+ * buffers are allocated up front, so analyzing does not allocate.
+ */
+class SpectrumAnalyzer {
+
+	/**
+	 * Number of samples per spectrum (a power of two)
+	 */
+	public static final int SIZE = 512;
+
+	/**
+	 * Number of new samples after which the spectra are recomputed
+	 */
+	public static final int HOP = 64;
+
+	private final FFT fft = new FFT(SIZE);
+
+	/**
+	 * The most recent values, one ring buffer per channel
+	 */
+	private final double[][] values;
+
+	/**
+	 * X values (seconds) of the most recent samples, as a ring buffer
+	 */
+	private final double[] xs = new double[SIZE];
+
+	/**
+	 * Ring buffer position of the next sample, which is the oldest one once
+	 * the buffers are full
+	 */
+	private int next;
+
+	/**
+	 * Number of samples in the buffers
+	 */
+	private int size;
+
+	/**
+	 * Samples added since the spectra were last computed
+	 */
+	private int fresh;
+
+	/**
+	 * Reused for receiving the spectrum of one channel
+	 */
+	private final double[] amplitudes = new double[fft.getBinCount()];
+
+	/**
+	 * The spectra, one per channel
+	 */
+	private final SpectrumSeries[] spectra;
+
+	/**
+	 * Whether the spectra are to be computed
+	 */
+	private volatile boolean enabled;
+
+	/**
+	 * Create a new analyzer
+	 *
+	 * @param channelNames
+	 *          one name per channel, used as the spectrum titles
+	 */
+	public SpectrumAnalyzer(String[] channelNames) {
+		values = new double[channelNames.length][SIZE];
+		spectra = new SpectrumSeries[channelNames.length];
+		for (int i = 0; i < spectra.length; i++) {
+			spectra[i] = new SpectrumSeries(channelNames[i]);
+		}
+	}
+
+	/**
+	 * @return the spectra, one per channel. Empty until enough samples were
+	 *         analyzed.
+	 */
+	public SpectrumSeries[] getSpectra() {
+		return spectra;
+	}
+
+	/**
+	 * Turn computing the spectra on or off. Samples are collected either way,
+	 * so spectra are available right after enabling.
+	 *
+	 * @param enabled
+	 *          true to compute the spectra
+	 */
+	public void setEnabled(boolean enabled) {
+		this.enabled = enabled;
+	}
+
+	/**
+	 * Add a sample. Must only be called by the capture thread.
+	 *
+	 * @param x
+	 *          X value of the sample in seconds. Must not be smaller than the
+	 *          previous one.
+	 * @param sample
+	 *          one value per channel (surplus values are ignored)
+	 */
+	public void add(double x, float[] sample) {
+		xs[next] = x;
+		for (int i = 0; i < values.length; i++) {
+			values[i][next] = sample[i];
+		}
+		next = (next + 1) % SIZE;
+		if (size < SIZE) {
+			size++;
+		}
+		fresh++;
+	}
+
+	/**
+	 * Recompute the spectra if enabled and due. Must only be called by the
+	 * capture thread.
+	 *
+	 * @return true if the spectra changed
+	 */
+	public boolean update() {
+		if (!enabled || size < SIZE || fresh < HOP) {
+			return false;
+		}
+		// The FFT assumes evenly spaced samples, so the rate is taken from the
+		// timestamps of the block rather than from the requested delay.
+		double span = xs[(next + SIZE - 1) % SIZE] - xs[next];
+		if (span <= 0) {
+			return false;
+		}
+		double binWidth = (SIZE - 1) / span / SIZE;
+		for (int i = 0; i < values.length; i++) {
+			fft.amplitudes(values[i], next, amplitudes);
+			spectra[i].setSpectrum(amplitudes, amplitudes.length, binWidth);
+		}
+		fresh = 0;
+		return true;
+	}
+}
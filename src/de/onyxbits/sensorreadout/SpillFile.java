@@ -0,0 +1,134 @@
+/*
+   Copyright 2012 Patrick Ahlbrecht
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+
+package de.onyxbits.sensorreadout;
+
+import java.io.*;
+
+import org.achartengine.model.XYSeries;
+
+import android.hardware.Sensor;
+
+/**
+ * Receives the samples that get evicted from the in memory history, so a long
+ * capture can still be exported as a whole. The samples are stored as a
+ * capture file (see <code>CaptureWriter</code>).
+ */
+class SpillFile {
+
+	/**
+	 * Where the rows go
+	 */
+	private File file;
+
+	/**
+	 * Number of values per row, not counting X
+	 */
+	private int channels;
+
+	/**
+	 * Output, null once closed
+	 */
+	private CaptureWriter writer;
+
+	/**
+	 * Reused for passing one row to the writer
+	 */
+	private float[] values;
+
+	/**
+	 * Create a new, empty spill file
+	 *
+	 * @param file
+	 *          where to store the rows. Existing content is discarded.
+	 * @param sensor
+	 *          the sensor that is being captured
+	 * @param channelNames
+	 *          one name per channel
+	 * @throws IOException
+	 *           if the file cannot be created
+	 */
+	public SpillFile(File file, Sensor sensor, String[] channelNames)
+			throws IOException {
+		this.file = file;
+		this.channels = channelNames.length;
+		values = new float[channels];
+		writer = new CaptureWriter(file, sensor, channelNames);
+	}
+
+	/**
+	 * Move the oldest sample of every channel to the file. The caller is
+	 * responsible for removing it from the channels afterwards.
+	 *
+	 * @param channel
+	 *          the channels to take the oldest sample from. Null channels are
+	 *          stored as NaN.
+	 * @throws IOException
+	 *           if writing fails
+	 */
+	public void spill(XYSeries[] channel) throws IOException {
+		double x = 0;
+		for (int i = 0; i < channels; i++) {
+			if (channel[i] != null) {
+				x = channel[i].getX(0);
+				values[i] = (float) channel[i].getY(0);
+			}
+			else {
+				values[i] = Float.NaN;
+			}
+		}
+		// X is in seconds
+		writer.append(Math.round(x * 1000000000d), values);
+	}
+
+	/**
+	 * @return number of rows written so far
+	 */
+	public int getRowCount() {
+		return writer == null ? 0 : writer.getRecordCount();
+	}
+
+	/**
+	 * Open the file for reading the rows back. Pending rows are flushed first.
+	 * Rows that are spilled later are not visible to the reader.
+	 *
+	 * @return a reader for the rows written so far
+	 * @throws IOException
+	 *           if the file cannot be read
+	 */
+	public CaptureReader openReader() throws IOException {
+		if (writer != null) {
+			writer.flush();
+		}
+		return new CaptureReader(file);
+	}
+
+	/**
+	 * Close and delete the file.
+	 */
+	public void delete() {
+		try {
+			if (writer != null) {
+				writer.close();
+			}
+		}
+		catch (IOException e) {
+			// Nothing we could do about it.
+		}
+		writer = null;
+		file.delete();
+	}
+}
@@ -15,81 +15,114 @@
 */
 
 package de.onyxbits.sensorreadout;
+
 import android.hardware.*;
+import android.os.Handler;
+import android.os.HandlerThread;
+import android.os.Process;
 
 
 /**
- * Receive events from the <code>Sensor</code> and periodically update the UI
+ * Receive events from the <code>Sensor</code> and hand them to the
+ * <code>RecordingService</code> in batches. Events arrive on a dedicated
+ * capture thread, where every event is copied into a <code>SampleBuffer</code>,
+ * which is drained on the same thread once per batch interval, so neither a
+ * slow frame nor touch input can hold up the capture.
  */
-class Ticker extends Thread implements SensorEventListener {
+class Ticker implements SensorEventListener, Runnable {
+
+  /**
+   * How many samples can be queued up between two batches
+   */
+  static final int BUFFERSIZE = 4096;
+
+  /**
+   * How long to collect events before handing them over, in milliseconds
+   */
+  private static final long BATCHINTERVAL = 1000 / ReadoutActivity.FRAMERATE;
+
+  /**
+   * The events, received from the <code>Sensor</code>, that have not been
+   * processed yet
+   */
+  private SampleBuffer samples;
 
   /**
-   * The most recent event, received from the <code>Sensor</code>
+   * The thread the <code>Sensor</code> delivers its events on
    */
-  private SensorEvent currentEvent;
+  private HandlerThread captureThread;
+
+  /**
+   * For registering with the <code>SensorManager</code>
+   */
+  private Handler handler;
 
   /** 
-   * The activity, we are ticking for
+   * The service, we are ticking for
    */
-  private ReadoutActivity activity;
+  private RecordingService recorder;
   
   /**
-   * Reference to the worker thread which does the actual UI updating
+   * Whether a batch is scheduled. Only accessed on the capture thread.
    */
-  private Ticker worker;
-
+  private boolean batchPending;
+  
   /**
-   * How long to sleep between taking a sample
+   * Create a new <code>Ticker</code> and start ticking the service whenever
+   * new events arrive.
+   * @param recorder the service to tick.
    */
-  private static final int SLEEPTIME = (int) 1000/ReadoutActivity.SAMPLERATE;
+  public Ticker(RecordingService recorder) {
+    samples = new SampleBuffer(BUFFERSIZE);
+    captureThread = new HandlerThread("Capture", Process.THREAD_PRIORITY_DISPLAY);
+    captureThread.start();
+    handler = new Handler(captureThread.getLooper());
+    this.recorder=recorder;
+  }
   
   /**
-   * Create a new <code>Ticker</code> and start ticking the <code>Activity</code>
-   * @param activity the <code>Activity</code> to tick.
+   * @return the handler to pass to the <code>SensorManager</code>, so events
+   * get delivered on the capture thread.
    */
-  public Ticker(ReadoutActivity activity) {
-    worker = new Ticker();
-    worker.activity = activity;
-    this.activity=activity;
+  public Handler getHandler() {
+    return handler;
   }
   
   /**
-   * For creating the worker thread
+   * Stop ticking. The listener must be unregistered first. Events that are
+   * still queued up are handed over on the calling thread.
    */
-  private Ticker() {}
+  public void stop() {
+    captureThread.quit();
+    try {
+      captureThread.join();
+    }
+    catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      return;
+    }
+    run();
+  }
   
   // Interface: SensorEventListener
   public void onAccuracyChanged(Sensor sensor, int accuracy) {
   }
 
-  // Interface: SensorEventListener
+  // Interface: SensorEventListener, called on the capture thread
   public void onSensorChanged(SensorEvent event) {
-    worker.currentEvent = event;
+    samples.offer(event.timestamp, event.values, event.accuracy);
+    if (!batchPending) {
+      batchPending = true;
+      handler.postDelayed(this, BATCHINTERVAL);
+    }
   }
   
-  @Override
+  // Interface: Runnable, called on the capture thread
   public void run() {
-    // This class implements a master and a private worker. We have to figure out on which
-    // Thread we are sitting.
-    if (worker!=null) {
-      // We are the master -> schedule the worker
-      try {
-        while(true) {
-          Thread.sleep(SLEEPTIME);
-          activity.runOnUiThread(worker);
-        }
-      }
-      catch (Exception e) {
-        // Goodbye
-      }
-    }
-    else {
-      // We are the worker -> update the UI
-      if (currentEvent!=null) {
-        activity.onTick(currentEvent);
-      }
+    batchPending = false;
+    if (samples.size()>0) {
+      recorder.onTick(samples);
     }
   }
   
-  
-}
\ No newline at end of file
+}
@@ -26,6 +26,7 @@ import org.achartengine.chart.LineChart;
 import org.achartengine.chart.PieChart;
 import org.achartengine.chart.RangeBarChart;
 import org.achartengine.chart.ScatterChart;
+import org.achartengine.chart.SpectrumChart;
 import org.achartengine.chart.TimeChart;
 import org.achartengine.chart.XYChart;
 import org.achartengine.model.CategorySeries;
@@ -70,6 +71,62 @@ public class ChartFactory {
     return new GraphicalView(context, chart);
   }
 
+  /**
+   * Creates a line chart view that draws on a surface, from its own render
+   * thread.
+   * 
+   * @param context the context
+   * @param dataset the multiple series dataset (cannot be null)
+   * @param renderer the multiple series renderer (cannot be null)
+   * @return a line chart surface view
+   * @throws IllegalArgumentException if dataset is null or renderer is null or
+   *           if the dataset and the renderer don't include the same number of
+   *           series
+   */
+  public static final SurfaceChartView getLineChartSurfaceView(Context context,
+      XYMultipleSeriesDataset dataset, XYMultipleSeriesRenderer renderer) {
+    checkParameters(dataset, renderer);
+    XYChart chart = new LineChart(dataset, renderer);
+    return new SurfaceChartView(context, chart);
+  }
+
+  /**
+   * Creates a spectrum chart view.
+   * 
+   * @param context the context
+   * @param dataset the multiple series dataset (cannot be null)
+   * @param renderer the multiple series renderer (cannot be null)
+   * @return a spectrum chart graphical view
+   * @throws IllegalArgumentException if dataset is null or renderer is null or
+   *           if the dataset and the renderer don't include the same number of
+   *           series
+   */
+  public static final GraphicalView getSpectrumChartView(Context context,
+      XYMultipleSeriesDataset dataset, XYMultipleSeriesRenderer renderer) {
+    checkParameters(dataset, renderer);
+    XYChart chart = new SpectrumChart(dataset, renderer);
+    return new GraphicalView(context, chart);
+  }
+
+  /**
+   * Creates a spectrum chart view that draws on a surface, from its own render
+   * thread.
+   * 
+   * @param context the context
+   * @param dataset the multiple series dataset (cannot be null)
+   * @param renderer the multiple series renderer (cannot be null)
+   * @return a spectrum chart surface view
+   * @throws IllegalArgumentException if dataset is null or renderer is null or
+   *           if the dataset and the renderer don't include the same number of
+   *           series
+   */
+  public static final SurfaceChartView getSpectrumChartSurfaceView(Context context,
+      XYMultipleSeriesDataset dataset, XYMultipleSeriesRenderer renderer) {
+    checkParameters(dataset, renderer);
+    XYChart chart = new SpectrumChart(dataset, renderer);
+    return new SurfaceChartView(context, chart);
+  }
+
   /**
    * Creates a cubic line chart view.
    * 
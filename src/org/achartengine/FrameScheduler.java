@@ -0,0 +1,241 @@
+/**
+ * Copyright (C) 2009 - 2013 SC 4ViewSoft SRL
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.achartengine;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import android.os.Build;
+import android.os.Handler;
+import android.os.Looper;
+import android.view.Choreographer;
+
+/**
+ * Coalesces change notifications into at most one frame per display refresh.
+ * Changes may be reported from any thread, frames are dispatched on the thread
+ * that created the scheduler. When nothing changed, no frame is requested at
+ * all. On API level 16 and up, frames are aligned with vsync through the
+ * Choreographer, on older versions they are posted with a fixed delay.
+ */
+public class FrameScheduler {
+  /** The chart data changed. */
+  public static final int DATA_CHANGED = 1;
+  /** The visible area of the chart changed. */
+  public static final int VIEWPORT_CHANGED = 2;
+  /** The frame delay when there is no Choreographer, in milliseconds. */
+  private static final long FALLBACK_FRAME_DELAY = 16;
+  /** The tolerance when enforcing the maximum frame rate, in nanoseconds. */
+  private static final long FRAME_SLACK = 2000000;
+  /** The frame listener. */
+  private final FrameListener mListener;
+  /** The handler of the frame thread. */
+  private final Handler mHandler;
+  /** The changes since the last dispatched frame. */
+  private final AtomicInteger mChanges = new AtomicInteger();
+  /** If a frame request from another thread is pending. */
+  private final AtomicBoolean mRequestPending = new AtomicBoolean();
+  /** If a frame is requested. */
+  private boolean mFramePosted;
+  /** If a frame is being dispatched. */
+  private boolean mDispatching;
+  /** The minimum time between two frames, in nanoseconds. */
+  private long mMinFrameInterval;
+  /** The time of the last dispatched frame, in nanoseconds. */
+  private long mLastFrameTime;
+  /** The Choreographer callback, only set on API level 16 and up. */
+  private Object mVsyncCallback;
+  /** Requests a frame on the frame thread. */
+  private final Runnable mRequestRunnable = new Runnable() {
+    public void run() {
+      mRequestPending.set(false);
+      requestFrame();
+    }
+  };
+  /** Dispatches a frame when there is no Choreographer. */
+  private final Runnable mFrameRunnable = new Runnable() {
+    public void run() {
+      doFrame(System.nanoTime());
+    }
+  };
+
+  /**
+   * Listens for frames.
+   */
+  public interface FrameListener {
+    /**
+     * Called once per frame, when there are changes.
+     *
+     * @param frameTimeNanos the frame time, in the System.nanoTime() time base
+     * @param changes the changes since the last frame, a combination of
+     *          DATA_CHANGED and VIEWPORT_CHANGED
+     */
+    void onFrame(long frameTimeNanos, int changes);
+  }
+
+  /**
+   * Builds a new frame scheduler, dispatching frames on the current thread,
+   * which must have a looper.
+   *
+   * @param listener the frame listener
+   */
+  public FrameScheduler(FrameListener listener) {
+    mListener = listener;
+    mHandler = new Handler();
+    if (Build.VERSION.SDK_INT >= 16) {
+      mVsyncCallback = new VsyncCallback(this);
+    }
+  }
+
+  /**
+   * Returns the maximum frame rate.
+   *
+   * @return the maximum number of frames per second, 0 for the display rate
+   */
+  public int getMaxFrameRate() {
+    return mMinFrameInterval == 0 ? 0 : (int) (1000000000L / mMinFrameInterval);
+  }
+
+  /**
+   * Sets the maximum frame rate. Frames are never dispatched faster than the
+   * display refreshes.
+   *
+   * @param fps the maximum number of frames per second, 0 for the display rate
+   */
+  public void setMaxFrameRate(int fps) {
+    mMinFrameInterval = fps <= 0 ? 0 : 1000000000L / fps;
+  }
+
+  /**
+   * Reports changes, which get dispatched with the next frame. May be called
+   * from any thread. Changes reported on the frame thread while a frame is
+   * being dispatched are considered part of that frame.
+   *
+   * @param changes a combination of DATA_CHANGED and VIEWPORT_CHANGED
+   */
+  public void schedule(int changes) {
+    boolean frameThread = Looper.myLooper() == mHandler.getLooper();
+    if (frameThread && mDispatching) {
+      return;
+    }
+    int current;
+    do {
+      current = mChanges.get();
+    } while (!mChanges.compareAndSet(current, current | changes));
+    if (frameThread) {
+      requestFrame();
+    } else if (mRequestPending.compareAndSet(false, true)) {
+      mHandler.post(mRequestRunnable);
+    }
+  }
+
+  /**
+   * Drops the pending changes and the requested frame. Must be called on the
+   * frame thread.
+   */
+  public void cancel() {
+    mChanges.set(0);
+    mHandler.removeCallbacks(mRequestRunnable);
+    mRequestPending.set(false);
+    if (mFramePosted) {
+      if (mVsyncCallback != null) {
+        ((VsyncCallback) mVsyncCallback).remove();
+      } else {
+        mHandler.removeCallbacks(mFrameRunnable);
+      }
+      mFramePosted = false;
+    }
+  }
+
+  /**
+   * Requests a frame if there are changes and none is requested yet.
+   */
+  private void requestFrame() {
+    if (mFramePosted || mDispatching || mChanges.get() == 0) {
+      return;
+    }
+    mFramePosted = true;
+    if (mVsyncCallback != null) {
+      ((VsyncCallback) mVsyncCallback).post();
+    } else {
+      mHandler.postDelayed(mFrameRunnable, FALLBACK_FRAME_DELAY);
+    }
+  }
+
+  /**
+   * Dispatches a frame, unless it comes too early for the maximum frame rate.
+   *
+   * @param frameTimeNanos the frame time
+   */
+  private void doFrame(long frameTimeNanos) {
+    mFramePosted = false;
+    if (mMinFrameInterval > 0
+        && frameTimeNanos - mLastFrameTime < mMinFrameInterval - FRAME_SLACK) {
+      requestFrame();
+      return;
+    }
+    int changes = mChanges.getAndSet(0);
+    if (changes == 0) {
+      return;
+    }
+    mLastFrameTime = frameTimeNanos;
+    mDispatching = true;
+    try {
+      mListener.onFrame(frameTimeNanos, changes);
+    } finally {
+      mDispatching = false;
+    }
+    // changes reported by other threads during the dispatch
+    requestFrame();
+  }
+
+  /**
+   * Receives the vsync frames from the Choreographer. Kept in its own class so
+   * the Choreographer is never loaded on older API levels.
+   */
+  private static class VsyncCallback implements Choreographer.FrameCallback {
+    /** The scheduler to dispatch the frames to. */
+    private final FrameScheduler mScheduler;
+    /** The Choreographer of the frame thread. */
+    private final Choreographer mChoreographer = Choreographer.getInstance();
+
+    /**
+     * Builds a new vsync callback.
+     *
+     * @param scheduler the scheduler to dispatch the frames to
+     */
+    VsyncCallback(FrameScheduler scheduler) {
+      mScheduler = scheduler;
+    }
+
+    /**
+     * Requests the next frame.
+     */
+    void post() {
+      mChoreographer.postFrameCallback(this);
+    }
+
+    /**
+     * Removes the requested frame.
+     */
+    void remove() {
+      mChoreographer.removeFrameCallback(this);
+    }
+
+    public void doFrame(long frameTimeNanos) {
+      mScheduler.doFrame(frameTimeNanos);
+    }
+  }
+}
@@ -43,7 +43,7 @@ import android.view.View;
 /**
  * The view that encapsulates the graphical chart.
  */
-public class GraphicalView extends View {
+public class GraphicalView extends View implements IChartView {
   /** The chart to be drawn. */
   private AbstractChart mChart;
   /** The chart renderer. */
@@ -80,6 +80,10 @@ public class GraphicalView extends View {
   private float oldY;
   /** If the graphical view is drawn. */
   private boolean mDrawn;
+  /** Coalesces the repaint requests into frames. */
+  private FrameScheduler mScheduler;
+  /** The listener to be notified before a frame is drawn. */
+  private FrameScheduler.FrameListener mFrameListener;
 
   /**
    * Creates a new graphical view.
@@ -91,6 +95,14 @@ public class GraphicalView extends View {
     super(context);
     mChart = chart;
     mHandler = new Handler();
+    mScheduler = new FrameScheduler(new FrameScheduler.FrameListener() {
+      public void onFrame(long frameTimeNanos, int changes) {
+        if (mFrameListener != null) {
+          mFrameListener.onFrame(frameTimeNanos, changes);
+        }
+        invalidate();
+      }
+    });
     if (mChart instanceof XYChart) {
       mRenderer = ((XYChart) mChart).getRenderer();
     } else {
@@ -164,6 +176,35 @@ public class GraphicalView extends View {
     return mChart;
   }
 
+  /**
+   * Sets the listener to be notified once per frame, before the chart gets
+   * drawn. The listener runs on the user interface thread and may update the
+   * dataset and the renderer for the frame.
+   * 
+   * @param listener the frame listener or null
+   */
+  public void setFrameListener(FrameScheduler.FrameListener listener) {
+    mFrameListener = listener;
+  }
+
+  /**
+   * Returns the maximum frame rate.
+   * 
+   * @return the maximum number of frames per second, 0 for the display rate
+   */
+  public int getMaxFrameRate() {
+    return mScheduler.getMaxFrameRate();
+  }
+
+  /**
+   * Sets the maximum frame rate at which repaints are performed.
+   * 
+   * @param fps the maximum number of frames per second, 0 for the display rate
+   */
+  public void setMaxFrameRate(int fps) {
+    mScheduler.setMaxFrameRate(fps);
+  }
+
   @Override
   protected void onDraw(Canvas canvas) {
     super.onDraw(canvas);
@@ -211,7 +252,7 @@ public class GraphicalView extends View {
   public void zoomIn() {
     if (mZoomIn != null) {
       mZoomIn.apply(Zoom.ZOOM_AXIS_XY);
-      repaint();
+      repaintViewport();
     }
   }
 
@@ -221,7 +262,7 @@ public class GraphicalView extends View {
   public void zoomOut() {
     if (mZoomOut != null) {
       mZoomOut.apply(Zoom.ZOOM_AXIS_XY);
-      repaint();
+      repaintViewport();
     }
   }
 
@@ -232,7 +273,7 @@ public class GraphicalView extends View {
     if (mFitZoom != null) {
       mFitZoom.apply();
       mZoomIn.notifyZoomResetListeners();
-      repaint();
+      repaintViewport();
     }
   }
 
@@ -284,7 +325,7 @@ public class GraphicalView extends View {
     mTouchHandler.removePanListener(listener);
   }
 
-  protected RectF getZoomRectangle() {
+  public RectF getZoomRectangle() {
     return mZoomR;
   }
 
@@ -305,14 +346,20 @@ public class GraphicalView extends View {
   }
 
   /**
-   * Schedule a view content repaint.
+   * Schedule a view content repaint, because the data changed. Repaints are
+   * coalesced, so there is at most one per display frame. May be called from
+   * any thread.
    */
   public void repaint() {
-    mHandler.post(new Runnable() {
-      public void run() {
-        invalidate();
-      }
-    });
+    mScheduler.schedule(FrameScheduler.DATA_CHANGED);
+  }
+
+  /**
+   * Schedule a view content repaint, because the visible area changed. May be
+   * called from any thread.
+   */
+  public void repaintViewport() {
+    mScheduler.schedule(FrameScheduler.VIEWPORT_CHANGED);
   }
 
   /**
@@ -0,0 +1,80 @@
+/**
+ * Copyright (C) 2009 - 2013 SC 4ViewSoft SRL
+ *  
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *  
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *  
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.achartengine;
+
+import android.graphics.RectF;
+
+/**
+ * The interface to be implemented by the views that display a chart.
+ */
+public interface IChartView {
+  /**
+   * Schedule a view content repaint, because the data changed. May be called
+   * from any thread.
+   */
+  void repaint();
+
+  /**
+   * Schedule a view content repaint, because the visible area changed. May be
+   * called from any thread.
+   */
+  void repaintViewport();
+
+  /**
+   * Sets the listener to be notified once per frame, before the chart gets
+   * drawn.
+   * 
+   * @param listener the frame listener or null
+   */
+  void setFrameListener(FrameScheduler.FrameListener listener);
+
+  /**
+   * Returns the maximum frame rate.
+   * 
+   * @return the maximum number of frames per second, 0 for the display rate
+   */
+  int getMaxFrameRate();
+
+  /**
+   * Sets the maximum frame rate at which repaints are performed.
+   * 
+   * @param fps the maximum number of frames per second, 0 for the display rate
+   */
+  void setMaxFrameRate(int fps);
+
+  /**
+   * Do a chart zoom in.
+   */
+  void zoomIn();
+
+  /**
+   * Do a chart zoom out.
+   */
+  void zoomOut();
+
+  /**
+   * Do a chart zoom reset / fit zoom.
+   */
+  void zoomReset();
+
+  /**
+   * Returns the area covered by the zoom buttons.
+   * 
+   * @return the zoom buttons rectangle
+   */
+  RectF getZoomRectangle();
+
+}
@@ -0,0 +1,469 @@
+/**
+ * Copyright (C) 2009 - 2013 SC 4ViewSoft SRL
+ *  
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *  
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *  
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.achartengine;
+
+import org.achartengine.chart.AbstractChart;
+import org.achartengine.chart.RoundChart;
+import org.achartengine.chart.XYChart;
+import org.achartengine.renderer.DefaultRenderer;
+import org.achartengine.renderer.XYMultipleSeriesRenderer;
+import org.achartengine.tools.FitZoom;
+import org.achartengine.tools.PanListener;
+import org.achartengine.tools.Zoom;
+import org.achartengine.tools.ZoomListener;
+
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.Paint;
+import android.graphics.RectF;
+import android.os.Build;
+import android.view.MotionEvent;
+import android.view.SurfaceHolder;
+import android.view.SurfaceView;
+
+/**
+ * A view that draws the chart on a surface, from its own render thread, so
+ * drawing a large dataset does not hold up the user interface thread.<br>
+ * Frames are scheduled like in the GraphicalView. The frame listener runs on
+ * the user interface thread and then hands the frame over to the render
+ * thread. While a frame is being drawn, further frames are deferred, so the
+ * frame listener never changes the dataset under the render thread and every
+ * frame shows the state the listener left behind. Touch gestures change the
+ * visible area at any time, so the axis ranges are captured when a frame is
+ * handed over and the render thread draws the captured ones.
+ */
+public class SurfaceChartView extends SurfaceView implements IChartView,
+    SurfaceHolder.Callback {
+  /** The zoom buttons background color. */
+  private static final int ZOOM_BUTTONS_COLOR = Color.argb(175, 150, 150, 150);
+  /** The chart to be drawn. */
+  private AbstractChart mChart;
+  /** The chart renderer. */
+  private DefaultRenderer mRenderer;
+  /** The zoom buttons rectangle. */
+  private RectF mZoomR = new RectF();
+  /** The zoom in icon. */
+  private Bitmap zoomInImage;
+  /** The zoom out icon. */
+  private Bitmap zoomOutImage;
+  /** The fit zoom icon. */
+  private Bitmap fitZoomImage;
+  /** The zoom area size. */
+  private int zoomSize = 50;
+  /** The zoom in tool. */
+  private Zoom mZoomIn;
+  /** The zoom out tool. */
+  private Zoom mZoomOut;
+  /** The fit zoom tool. */
+  private FitZoom mFitZoom;
+  /** The paint to be used when drawing the chart, only used by the render thread. */
+  private Paint mPaint = new Paint();
+  /** The touch handler. */
+  private ITouchHandler mTouchHandler;
+  /** If the chart has been drawn. */
+  private volatile boolean mDrawn;
+  /** Coalesces the repaint requests into frames. */
+  private FrameScheduler mScheduler;
+  /** The listener to be notified before a frame is drawn. */
+  private FrameScheduler.FrameListener mFrameListener;
+  /** Guards the render state below. */
+  private final Object mLock = new Object();
+  /** The render thread, null while there is no surface. */
+  private RenderThread mRenderThread;
+  /** If a frame has been handed over to the render thread and is not done yet. */
+  private boolean mRendering;
+  /** The changes of the frames that were deferred while rendering. */
+  private int mDeferred;
+  /** The surface width. */
+  private int mWidth;
+  /** The surface height. */
+  private int mHeight;
+
+  /**
+   * Creates a new surface chart view.
+   * 
+   * @param context the context
+   * @param chart the chart to be drawn
+   */
+  public SurfaceChartView(Context context, AbstractChart chart) {
+    super(context);
+    mChart = chart;
+    getHolder().addCallback(this);
+    mScheduler = new FrameScheduler(new FrameScheduler.FrameListener() {
+      public void onFrame(long frameTimeNanos, int changes) {
+        doFrame(frameTimeNanos, changes);
+      }
+    });
+    if (mChart instanceof XYChart) {
+      mRenderer = ((XYChart) mChart).getRenderer();
+    } else {
+      mRenderer = ((RoundChart) mChart).getRenderer();
+    }
+    if (mRenderer.isZoomButtonsVisible()) {
+      zoomInImage = BitmapFactory.decodeStream(GraphicalView.class
+          .getResourceAsStream("image/zoom_in.png"));
+      zoomOutImage = BitmapFactory.decodeStream(GraphicalView.class
+          .getResourceAsStream("image/zoom_out.png"));
+      fitZoomImage = BitmapFactory.decodeStream(GraphicalView.class
+          .getResourceAsStream("image/zoom-1.png"));
+    }
+
+    if (mRenderer instanceof XYMultipleSeriesRenderer
+        && ((XYMultipleSeriesRenderer) mRenderer).getMarginsColor() == XYMultipleSeriesRenderer.NO_COLOR) {
+      ((XYMultipleSeriesRenderer) mRenderer).setMarginsColor(mPaint.getColor());
+    }
+    if (mRenderer.isZoomEnabled() && mRenderer.isZoomButtonsVisible()
+        || mRenderer.isExternalZoomEnabled()) {
+      mZoomIn = new Zoom(mChart, true, mRenderer.getZoomRate());
+      mZoomOut = new Zoom(mChart, false, mRenderer.getZoomRate());
+      mFitZoom = new FitZoom(mChart);
+    }
+    if (Build.VERSION.SDK_INT < 7) {
+      mTouchHandler = new TouchHandlerOld(this, mChart);
+    } else {
+      mTouchHandler = new TouchHandler(this, mChart);
+    }
+  }
+
+  /**
+   * Returns the drawn state of the chart.
+   * 
+   * @return the drawn state of the chart
+   */
+  public boolean isChartDrawn() {
+    return mDrawn;
+  }
+
+  public AbstractChart getChart() {
+    return mChart;
+  }
+
+  /**
+   * Sets the listener to be notified once per frame, before the chart gets
+   * drawn. The listener runs on the user interface thread and may update the
+   * dataset and the renderer for the frame. It is not called while the render
+   * thread is drawing the previous frame.
+   * 
+   * @param listener the frame listener or null
+   */
+  public void setFrameListener(FrameScheduler.FrameListener listener) {
+    mFrameListener = listener;
+  }
+
+  /**
+   * Returns the maximum frame rate.
+   * 
+   * @return the maximum number of frames per second, 0 for the display rate
+   */
+  public int getMaxFrameRate() {
+    return mScheduler.getMaxFrameRate();
+  }
+
+  /**
+   * Sets the maximum frame rate at which repaints are performed.
+   * 
+   * @param fps the maximum number of frames per second, 0 for the display rate
+   */
+  public void setMaxFrameRate(int fps) {
+    mScheduler.setMaxFrameRate(fps);
+  }
+
+  /**
+   * Sets the zoom rate.
+   * 
+   * @param rate the zoom rate
+   */
+  public void setZoomRate(float rate) {
+    if (mZoomIn != null && mZoomOut != null) {
+      mZoomIn.setZoomRate(rate);
+      mZoomOut.setZoomRate(rate);
+    }
+  }
+
+  /**
+   * Do a chart zoom in.
+   */
+  public void zoomIn() {
+    if (mZoomIn != null) {
+      mZoomIn.apply(Zoom.ZOOM_AXIS_XY);
+      repaintViewport();
+    }
+  }
+
+  /**
+   * Do a chart zoom out.
+   */
+  public void zoomOut() {
+    if (mZoomOut != null) {
+      mZoomOut.apply(Zoom.ZOOM_AXIS_XY);
+      repaintViewport();
+    }
+  }
+
+  /**
+   * Do a chart zoom reset / fit zoom.
+   */
+  public void zoomReset() {
+    if (mFitZoom != null) {
+      mFitZoom.apply();
+      mZoomIn.notifyZoomResetListeners();
+      repaintViewport();
+    }
+  }
+
+  /**
+   * Adds a new zoom listener.
+   * 
+   * @param listener zoom listener
+   */
+  public void addZoomListener(ZoomListener listener, boolean onButtons, boolean onPinch) {
+    if (onButtons) {
+      if (mZoomIn != null) {
+        mZoomIn.addZoomListener(listener);
+        mZoomOut.addZoomListener(listener);
+      }
+      if (onPinch) {
+        mTouchHandler.addZoomListener(listener);
+      }
+    }
+  }
+
+  /**
+   * Removes a zoom listener.
+   * 
+   * @param listener zoom listener
+   */
+  public synchronized void removeZoomListener(ZoomListener listener) {
+    if (mZoomIn != null) {
+      mZoomIn.removeZoomListener(listener);
+      mZoomOut.removeZoomListener(listener);
+    }
+    mTouchHandler.removeZoomListener(listener);
+  }
+
+  /**
+   * Adds a new pan listener.
+   * 
+   * @param listener pan listener
+   */
+  public void addPanListener(PanListener listener) {
+    mTouchHandler.addPanListener(listener);
+  }
+
+  /**
+   * Removes a pan listener.
+   * 
+   * @param listener pan listener
+   */
+  public void removePanListener(PanListener listener) {
+    mTouchHandler.removePanListener(listener);
+  }
+
+  public RectF getZoomRectangle() {
+    return mZoomR;
+  }
+
+  @Override
+  public boolean onTouchEvent(MotionEvent event) {
+    if (mRenderer != null && mDrawn && (mRenderer.isPanEnabled() || mRenderer.isZoomEnabled())) {
+      if (mTouchHandler.handleTouch(event)) {
+        return true;
+      }
+    }
+    return super.onTouchEvent(event);
+  }
+
+  /**
+   * Schedule a view content repaint, because the data changed. Repaints are
+   * coalesced, so there is at most one per display frame. May be called from
+   * any thread.
+   */
+  public void repaint() {
+    mScheduler.schedule(FrameScheduler.DATA_CHANGED);
+  }
+
+  /**
+   * Schedule a view content repaint, because the visible area changed. May be
+   * called from any thread.
+   */
+  public void repaintViewport() {
+    mScheduler.schedule(FrameScheduler.VIEWPORT_CHANGED);
+  }
+
+  public void surfaceCreated(SurfaceHolder holder) {
+    synchronized (mLock) {
+      mRenderThread = new RenderThread(holder);
+      mRenderThread.start();
+    }
+  }
+
+  public void surfaceChanged(SurfaceHolder holder, int format, int width, int height) {
+    synchronized (mLock) {
+      mWidth = width;
+      mHeight = height;
+    }
+    repaintViewport();
+  }
+
+  public void surfaceDestroyed(SurfaceHolder holder) {
+    RenderThread thread;
+    synchronized (mLock) {
+      thread = mRenderThread;
+      mRenderThread = null;
+      mLock.notifyAll();
+    }
+    // the surface must not be used any more once this method returns
+    boolean interrupted = false;
+    while (thread.isAlive()) {
+      try {
+        thread.join();
+      } catch (InterruptedException e) {
+        interrupted = true;
+      }
+    }
+    if (interrupted) {
+      Thread.currentThread().interrupt();
+    }
+    int deferred;
+    synchronized (mLock) {
+      mRendering = false;
+      deferred = mDeferred;
+      mDeferred = 0;
+    }
+    if (deferred != 0) {
+      mScheduler.schedule(deferred);
+    }
+  }
+
+  /**
+   * Runs the frame listener and hands the frame over to the render thread.
+   * Called on the user interface thread.
+   * 
+   * @param frameTimeNanos the frame time
+   * @param changes the changes since the last frame
+   */
+  private void doFrame(long frameTimeNanos, int changes) {
+    synchronized (mLock) {
+      if (mRendering) {
+        // picked up again when the render thread is done
+        mDeferred |= changes;
+        return;
+      }
+    }
+    if (mFrameListener != null) {
+      mFrameListener.onFrame(frameTimeNanos, changes);
+    }
+    synchronized (mLock) {
+      if (mRenderThread != null) {
+        if (mChart instanceof XYChart) {
+          ((XYChart) mChart).captureAxisRanges();
+        }
+        mRendering = true;
+        mLock.notifyAll();
+      }
+    }
+  }
+
+  /**
+   * Draws the chart and the zoom buttons on the canvas. Called on the render
+   * thread.
+   * 
+   * @param canvas the canvas to draw on
+   * @param width the surface width
+   * @param height the surface height
+   */
+  private void drawChart(Canvas canvas, int width, int height) {
+    if (mRenderer.isApplyBackgroundColor()) {
+      canvas.drawColor(mRenderer.getBackgroundColor());
+    } else {
+      canvas.drawColor(Color.BLACK);
+    }
+    mChart.draw(canvas, 0, 0, width, height, mPaint);
+    if (mRenderer.isZoomEnabled() && mRenderer.isZoomButtonsVisible()) {
+      mPaint.setColor(ZOOM_BUTTONS_COLOR);
+      zoomSize = Math.max(zoomSize, Math.min(width, height) / 7);
+      mZoomR.set(width - zoomSize * 3, height - zoomSize * 0.775f, width, height);
+      canvas.drawRoundRect(mZoomR, zoomSize / 3, zoomSize / 3, mPaint);
+      float buttonY = height - zoomSize * 0.625f;
+      canvas.drawBitmap(zoomInImage, width - zoomSize * 2.75f, buttonY, null);
+      canvas.drawBitmap(zoomOutImage, width - zoomSize * 1.75f, buttonY, null);
+      canvas.drawBitmap(fitZoomImage, width - zoomSize * 0.75f, buttonY, null);
+    }
+    mDrawn = true;
+  }
+
+  /**
+   * Draws the frames handed over by the user interface thread, for as long as
+   * the surface exists.
+   */
+  private class RenderThread extends Thread {
+    /** The holder of the surface to draw on. */
+    private final SurfaceHolder mHolder;
+
+    /**
+     * Builds a new render thread.
+     * 
+     * @param holder the holder of the surface to draw on
+     */
+    RenderThread(SurfaceHolder holder) {
+      super("SurfaceChartView");
+      mHolder = holder;
+    }
+
+    @Override
+    public void run() {
+      while (true) {
+        int width;
+        int height;
+        synchronized (mLock) {
+          while (mRenderThread == this && !mRendering) {
+            try {
+              mLock.wait();
+            } catch (InterruptedException e) {
+              // keep waiting for a frame or the end of the surface
+            }
+          }
+          if (mRenderThread != this) {
+            return;
+          }
+          width = mWidth;
+          height = mHeight;
+        }
+        Canvas canvas = mHolder.lockCanvas();
+        if (canvas != null) {
+          try {
+            drawChart(canvas, width, height);
+          } finally {
+            mHolder.unlockCanvasAndPost(canvas);
+          }
+        }
+        int deferred;
+        synchronized (mLock) {
+          mRendering = false;
+          deferred = mDeferred;
+          mDeferred = 0;
+        }
+        if (deferred != 0) {
+          mScheduler.schedule(deferred);
+        }
+      }
+    }
+  }
+
+}
@@ -48,7 +48,7 @@ public class TouchHandler implements ITouchHandler {
   /** The zoom for the pinch gesture. */
   private Zoom mPinchZoom;
   /** The graphical view. */
-  private GraphicalView graphicalView;
+  private IChartView graphicalView;
 
   /**
    * Creates a new graphical view.
@@ -56,7 +56,7 @@ public class TouchHandler implements ITouchHandler {
    * @param view the graphical view
    * @param chart the chart to be drawn
    */
-  public TouchHandler(GraphicalView view, AbstractChart chart) {
+  public TouchHandler(IChartView view, AbstractChart chart) {
     graphicalView = view;
     zoomR = graphicalView.getZoomRectangle();
     if (chart instanceof XYChart) {
@@ -122,7 +122,7 @@ public class TouchHandler implements ITouchHandler {
         }
         oldX = newX;
         oldY = newY;
-        graphicalView.repaint();
+        graphicalView.repaintViewport();
         return true;
       }
     } else if (action == MotionEvent.ACTION_DOWN) {
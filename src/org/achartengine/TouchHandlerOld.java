@@ -41,7 +41,7 @@ public class TouchHandlerOld implements ITouchHandler {
   /** The pan tool. */
   private Pan mPan;
   /** The graphical view. */
-  private GraphicalView graphicalView;
+  private IChartView graphicalView;
 
   /**
    * Creates an implementation of the old version of the touch handler.
@@ -49,7 +49,7 @@ public class TouchHandlerOld implements ITouchHandler {
    * @param view the graphical view
    * @param chart the chart to be drawn
    */
-  public TouchHandlerOld(GraphicalView view, AbstractChart chart) {
+  public TouchHandlerOld(IChartView view, AbstractChart chart) {
     graphicalView = view;
     zoomR = graphicalView.getZoomRectangle();
     if (chart instanceof XYChart) {
@@ -73,7 +73,7 @@ public class TouchHandlerOld implements ITouchHandler {
         }
         oldX = newX;
         oldY = newY;
-        graphicalView.repaint();
+        graphicalView.repaintViewport();
         return true;
       }
     } else if (action == MotionEvent.ACTION_DOWN) {
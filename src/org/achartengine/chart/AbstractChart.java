@@ -17,6 +17,7 @@ package org.achartengine.chart;
 
 import java.io.Serializable;
 import java.text.NumberFormat;
+import java.util.Arrays;
 import java.util.List;
 
 import org.achartengine.model.Point;
@@ -40,6 +41,19 @@ import android.graphics.RectF;
  * An abstract class to be implemented by the chart rendering classes.
  */
 public abstract class AbstractChart implements Serializable {
+  /** The path reused for drawing. */
+  private transient Path mPath;
+  /** The clip bounds of the canvas being drawn to. */
+  private transient Rect mClipBounds;
+  /** The values of a points list, copied for drawing. */
+  private transient float[] mPointsBuffer;
+  /** The buffers for clipping polygons. */
+  private transient float[] mClipBuffer, mClipScratch;
+  /** The visible parameter range of the segment being clipped. */
+  private transient float mClipT0, mClipT1;
+  /** The end points of the visible part of the last clipped segment. */
+  private transient float mClipX1, mClipY1, mClipX2, mClipY2;
+
   /**
    * The graphical representation of the chart.
    * 
@@ -158,7 +172,10 @@ public abstract class AbstractChart implements Serializable {
    * @param paint the paint to be used for drawing
    */
   protected void drawString(Canvas canvas, String text, float x, float y, Paint paint) {
-    if (text != null) {
+    if (text != null && text.indexOf('\n') < 0) {
+      // the common case of a single line needs no measuring
+      canvas.drawText(text, x, y, paint);
+    } else if (text != null) {
       String[] lines = text.split("\n");
       Rect rect = new Rect();
       int yOff = 0;
@@ -207,87 +224,24 @@ public abstract class AbstractChart implements Serializable {
    * @return the label without the useless fraction digit
    */
   protected String getLabel(NumberFormat format, double label) {
-    String text = "";
-    if (format != null) {
-      text = format.format(label);
-    } else if (label == Math.round(label)) {
-      text = Math.round(label) + "";
-    } else {
-      text = label + "";
-    }
-    return text;
+    return MathHelper.getLabel(format, label);
   }
 
-  private static float[] calculateDrawPoints(float p1x, float p1y, float p2x, float p2y,
-      int screenHeight, int screenWidth) {
-    float drawP1x;
-    float drawP1y;
-    float drawP2x;
-    float drawP2y;
-
-    if (p1y > screenHeight) {
-      // Intersection with the top of the screen
-      float m = (p2y - p1y) / (p2x - p1x);
-      drawP1x = (screenHeight - p1y + m * p1x) / m;
-      drawP1y = screenHeight;
-
-      if (drawP1x < 0) {
-        // If Intersection is left of the screen we calculate the intersection
-        // with the left border
-        drawP1x = 0;
-        drawP1y = p1y - m * p1x;
-      } else if (drawP1x > screenWidth) {
-        // If Intersection is right of the screen we calculate the intersection
-        // with the right border
-        drawP1x = screenWidth;
-        drawP1y = m * screenWidth + p1y - m * p1x;
-      }
-    } else if (p1y < 0) {
-      float m = (p2y - p1y) / (p2x - p1x);
-      drawP1x = (-p1y + m * p1x) / m;
-      drawP1y = 0;
-      if (drawP1x < 0) {
-        drawP1x = 0;
-        drawP1y = p1y - m * p1x;
-      } else if (drawP1x > screenWidth) {
-        drawP1x = screenWidth;
-        drawP1y = m * screenWidth + p1y - m * p1x;
-      }
-    } else {
-      // If the point is in the screen use it
-      drawP1x = p1x;
-      drawP1y = p1y;
-    }
-
-    if (p2y > screenHeight) {
-      float m = (p2y - p1y) / (p2x - p1x);
-      drawP2x = (screenHeight - p1y + m * p1x) / m;
-      drawP2y = screenHeight;
-      if (drawP2x < 0) {
-        drawP2x = 0;
-        drawP2y = p1y - m * p1x;
-      } else if (drawP2x > screenWidth) {
-        drawP2x = screenWidth;
-        drawP2y = m * screenWidth + p1y - m * p1x;
-      }
-    } else if (p2y < 0) {
-      float m = (p2y - p1y) / (p2x - p1x);
-      drawP2x = (-p1y + m * p1x) / m;
-      drawP2y = 0;
-      if (drawP2x < 0) {
-        drawP2x = 0;
-        drawP2y = p1y - m * p1x;
-      } else if (drawP2x > screenWidth) {
-        drawP2x = screenWidth;
-        drawP2y = m * screenWidth + p1y - m * p1x;
-      }
-    } else {
-      // If the point is in the screen use it
-      drawP2x = p2x;
-      drawP2y = p2y;
+  /**
+   * The graphical representation of a path.
+   * 
+   * @param canvas the canvas to paint to
+   * @param points the points that are contained in the path to paint
+   * @param paint the paint to be used for painting
+   * @param circular if the path ends with the start point
+   */
+  protected void drawPath(Canvas canvas, List<Float> points, Paint paint, boolean circular) {
+    int length = points.size();
+    mPointsBuffer = ensureCapacity(mPointsBuffer, length);
+    for (int i = 0; i < length; i++) {
+      mPointsBuffer[i] = points.get(i);
     }
-
-    return new float[] { drawP1x, drawP1y, drawP2x, drawP2y };
+    drawPath(canvas, mPointsBuffer, length, paint, circular);
   }
 
   /**
@@ -298,77 +252,273 @@ public abstract class AbstractChart implements Serializable {
    * @param paint the paint to be used for painting
    * @param circular if the path ends with the start point
    */
-  protected void drawPath(Canvas canvas, List<Float> points, Paint paint, boolean circular) {
-    Path path = new Path();
-    int height = canvas.getHeight();
-    int width = canvas.getWidth();
+  protected void drawPath(Canvas canvas, float[] points, Paint paint, boolean circular) {
+    drawPath(canvas, points, points.length, paint, circular);
+  }
 
-    float[] tempDrawPoints;
-    if (points.size() < 4) {
+  /**
+   * The graphical representation of a path. The path is clipped against the
+   * clip bounds of the canvas, widened by the stroke width, so segments that
+   * are off screen never reach the path.
+   * 
+   * @param canvas the canvas to paint to
+   * @param points the points that are contained in the path to paint
+   * @param length the number of used values in the points array
+   * @param paint the paint to be used for painting
+   * @param circular if the path ends with the start point
+   */
+  protected void drawPath(Canvas canvas, float[] points, int length, Paint paint,
+      boolean circular) {
+    if (length < 4) {
       return;
     }
-    tempDrawPoints = calculateDrawPoints(points.get(0), points.get(1), points.get(2),
-        points.get(3), height, width);
-    path.moveTo(tempDrawPoints[0], tempDrawPoints[1]);
-    path.lineTo(tempDrawPoints[2], tempDrawPoints[3]);
+    if (mClipBounds == null) {
+      mClipBounds = new Rect();
+    }
+    if (!canvas.getClipBounds(mClipBounds)) {
+      return;
+    }
+    float margin = paint.getStrokeWidth() + 1;
+    float left = mClipBounds.left - margin;
+    float top = mClipBounds.top - margin;
+    float right = mClipBounds.right + margin;
+    float bottom = mClipBounds.bottom + margin;
+    if (mPath == null) {
+      mPath = new Path();
+    } else {
+      mPath.rewind();
+    }
+    if (circular) {
+      addPolygon(mPath, points, length, left, top, right, bottom);
+    } else {
+      addPolyline(mPath, points, length, left, top, right, bottom);
+    }
+    if (!mPath.isEmpty()) {
+      canvas.drawPath(mPath, paint);
+    }
+  }
 
-    int length = points.size();
-    for (int i = 4; i < length; i += 2) {
-      if ((points.get(i - 1) < 0 && points.get(i + 1) < 0)
-          || (points.get(i - 1) > height && points.get(i + 1) > height)) {
+  /**
+   * Adds the visible parts of a polyline to a path. Consecutive visible
+   * segments are joined into one contour, a new contour is only started where
+   * the polyline leaves the clip rectangle.
+   * 
+   * @param path the path to add to
+   * @param points the points of the polyline
+   * @param length the number of used values in the points array
+   * @param left the left edge of the clip rectangle
+   * @param top the top edge of the clip rectangle
+   * @param right the right edge of the clip rectangle
+   * @param bottom the bottom edge of the clip rectangle
+   */
+  private void addPolyline(Path path, float[] points, int length, float left, float top,
+      float right, float bottom) {
+    boolean connected = false;
+    float penX = 0;
+    float penY = 0;
+    for (int i = 2; i + 1 < length; i += 2) {
+      float x1 = points[i - 2];
+      float y1 = points[i - 1];
+      float x2 = points[i];
+      float y2 = points[i + 1];
+      if ((x1 < left && x2 < left) || (x1 > right && x2 > right) || (y1 < top && y2 < top)
+          || (y1 > bottom && y2 > bottom) || !clipSegment(x1, y1, x2, y2, left, top, right, bottom)) {
+        connected = false;
         continue;
       }
-      tempDrawPoints = calculateDrawPoints(points.get(i - 2), points.get(i - 1), points.get(i),
-          points.get(i + 1), height, width);
-      if (!circular) {
-        path.moveTo(tempDrawPoints[0], tempDrawPoints[1]);
+      if (!connected || mClipX1 != penX || mClipY1 != penY) {
+        path.moveTo(mClipX1, mClipY1);
       }
-      path.lineTo(tempDrawPoints[2], tempDrawPoints[3]);
+      path.lineTo(mClipX2, mClipY2);
+      penX = mClipX2;
+      penY = mClipY2;
+      connected = true;
     }
-    if (circular) {
-      path.lineTo(points.get(0), points.get(1));
+  }
+
+  /**
+   * Clips a line segment against a rectangle, using the Liang-Barsky
+   * algorithm. The end points of the visible part are stored in mClipX1,
+   * mClipY1, mClipX2 and mClipY2.
+   * 
+   * @param x1 the start x
+   * @param y1 the start y
+   * @param x2 the end x
+   * @param y2 the end y
+   * @param left the left edge of the clip rectangle
+   * @param top the top edge of the clip rectangle
+   * @param right the right edge of the clip rectangle
+   * @param bottom the bottom edge of the clip rectangle
+   * @return if any part of the segment is visible
+   */
+  private boolean clipSegment(float x1, float y1, float x2, float y2, float left, float top,
+      float right, float bottom) {
+    float dx = x2 - x1;
+    float dy = y2 - y1;
+    mClipT0 = 0;
+    mClipT1 = 1;
+    if (!clipEdge(-dx, x1 - left) || !clipEdge(dx, right - x1) || !clipEdge(-dy, y1 - top)
+        || !clipEdge(dy, bottom - y1)) {
+      return false;
+    }
+    if (mClipT0 > 0) {
+      mClipX1 = x1 + mClipT0 * dx;
+      mClipY1 = y1 + mClipT0 * dy;
+    } else {
+      mClipX1 = x1;
+      mClipY1 = y1;
     }
-    canvas.drawPath(path, paint);
+    if (mClipT1 < 1) {
+      mClipX2 = x1 + mClipT1 * dx;
+      mClipY2 = y1 + mClipT1 * dy;
+    } else {
+      mClipX2 = x2;
+      mClipY2 = y2;
+    }
+    return true;
   }
 
   /**
-   * The graphical representation of a path.
+   * Narrows the visible parameter range of the segment being clipped to one
+   * edge of the clip rectangle.
    * 
-   * @param canvas the canvas to paint to
-   * @param points the points that are contained in the path to paint
-   * @param paint the paint to be used for painting
-   * @param circular if the path ends with the start point
+   * @param p the projection of the segment direction onto the edge normal
+   * @param q the distance of the segment start to the edge
+   * @return false if the segment is entirely outside the edge
    */
-  protected void drawPath(Canvas canvas, float[] points, Paint paint, boolean circular) {
-    Path path = new Path();
-    int height = canvas.getHeight();
-    int width = canvas.getWidth();
+  private boolean clipEdge(float p, float q) {
+    if (p == 0) {
+      return q >= 0;
+    }
+    float t = q / p;
+    if (p < 0) {
+      if (t > mClipT1) {
+        return false;
+      }
+      if (t > mClipT0) {
+        mClipT0 = t;
+      }
+    } else {
+      if (t < mClipT0) {
+        return false;
+      }
+      if (t < mClipT1) {
+        mClipT1 = t;
+      }
+    }
+    return true;
+  }
 
-    float[] tempDrawPoints;
-    if (points.length < 4) {
+  /**
+   * Adds a closed polygon to a path, clipped against a rectangle with the
+   * Sutherland-Hodgman algorithm. Polygons that are entirely inside the
+   * rectangle are added as they are.
+   * 
+   * @param path the path to add to
+   * @param points the vertices of the polygon
+   * @param length the number of used values in the points array
+   * @param left the left edge of the clip rectangle
+   * @param top the top edge of the clip rectangle
+   * @param right the right edge of the clip rectangle
+   * @param bottom the bottom edge of the clip rectangle
+   */
+  private void addPolygon(Path path, float[] points, int length, float left, float top,
+      float right, float bottom) {
+    length -= length % 2;
+    boolean inside = true;
+    for (int i = 0; i < length && inside; i += 2) {
+      inside = points[i] >= left && points[i] <= right && points[i + 1] >= top
+          && points[i + 1] <= bottom;
+    }
+    float[] polygon = points;
+    if (!inside) {
+      for (int edge = 0; edge < 4; edge++) {
+        float bound = edge == 0 ? left : edge == 1 ? right : edge == 2 ? top : bottom;
+        // every vertex yields at most two vertices per edge
+        float[] out;
+        if (edge % 2 == 0) {
+          out = mClipScratch = ensureCapacity(mClipScratch, 2 * length);
+        } else {
+          out = mClipBuffer = ensureCapacity(mClipBuffer, 2 * length);
+        }
+        length = clipPolygon(polygon, length, out, edge, bound);
+        polygon = out;
+      }
+    }
+    if (length < 4) {
       return;
     }
-    tempDrawPoints = calculateDrawPoints(points[0], points[1], points[2], points[3], height, width);
-    path.moveTo(tempDrawPoints[0], tempDrawPoints[1]);
-    path.lineTo(tempDrawPoints[2], tempDrawPoints[3]);
+    path.moveTo(polygon[0], polygon[1]);
+    for (int i = 2; i < length; i += 2) {
+      path.lineTo(polygon[i], polygon[i + 1]);
+    }
+    path.lineTo(polygon[0], polygon[1]);
+  }
 
-    int length = points.length;
-    for (int i = 4; i < length; i += 2) {
-      if ((points[i - 1] < 0 && points[i + 1] < 0)
-          || (points[i - 1] > height && points[i + 1] > height)) {
-        continue;
+  /**
+   * Clips a closed polygon against one edge of the clip rectangle.
+   * 
+   * @param in the vertices of the polygon
+   * @param length the number of used values in the in array
+   * @param out the buffer for the vertices of the clipped polygon
+   * @param edge the edge, 0 for left, 1 for right, 2 for top and 3 for bottom
+   * @param bound the coordinate of the edge
+   * @return the number of used values in the out array
+   */
+  private static int clipPolygon(float[] in, int length, float[] out, int edge, float bound) {
+    int count = 0;
+    if (length < 2) {
+      return count;
+    }
+    boolean vertical = edge < 2;
+    boolean keepLower = edge == 1 || edge == 3;
+    float prevX = in[length - 2];
+    float prevY = in[length - 1];
+    float prevValue = vertical ? prevX : prevY;
+    boolean prevInside = keepLower ? prevValue <= bound : prevValue >= bound;
+    for (int i = 0; i < length; i += 2) {
+      float x = in[i];
+      float y = in[i + 1];
+      float value = vertical ? x : y;
+      boolean inside = keepLower ? value <= bound : value >= bound;
+      if (inside != prevInside) {
+        float t = (bound - prevValue) / (value - prevValue);
+        if (vertical) {
+          out[count++] = bound;
+          out[count++] = prevY + t * (y - prevY);
+        } else {
+          out[count++] = prevX + t * (x - prevX);
+          out[count++] = bound;
+        }
       }
-      tempDrawPoints = calculateDrawPoints(points[i - 2], points[i - 1], points[i], points[i + 1],
-          height, width);
-      if (!circular) {
-        path.moveTo(tempDrawPoints[0], tempDrawPoints[1]);
+      if (inside) {
+        out[count++] = x;
+        out[count++] = y;
       }
-      path.lineTo(tempDrawPoints[2], tempDrawPoints[3]);
+      prevX = x;
+      prevY = y;
+      prevValue = value;
+      prevInside = inside;
     }
-    if (circular) {
-      path.lineTo(points[0], points[1]);
+    return count;
+  }
+
+  /**
+   * Makes sure a reusable buffer can hold the given number of values, growing
+   * it if needed.
+   * 
+   * @param buffer the buffer, may be null
+   * @param capacity the required capacity
+   * @return the buffer or a grown copy of it
+   */
+  protected static float[] ensureCapacity(float[] buffer, int capacity) {
+    if (buffer == null) {
+      return new float[Math.max(capacity, 64)];
+    }
+    if (buffer.length < capacity) {
+      return Arrays.copyOf(buffer, Math.max(capacity, buffer.length * 2));
     }
-    canvas.drawPath(path, paint);
+    return buffer;
   }
 
   /**
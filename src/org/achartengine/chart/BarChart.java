@@ -90,6 +90,12 @@ public class BarChart extends XYChart {
     return ret;
   }
 
+  @Override
+  protected float getClickableAreaReach(int seriesIndex) {
+    // the bar width depends on the number of visible points
+    return -1;
+  }
+
   /**
    * The graphical representation of a series.
    * 
@@ -97,6 +97,11 @@ public class BubbleChart extends XYChart {
     return ret;
   }
 
+  @Override
+  protected float getClickableAreaReach(int seriesIndex) {
+    return MAX_BUBBLE_SIZE + MIN_BUBBLE_SIZE;
+  }
+
   /**
    * Returns the legend shape width.
    * 
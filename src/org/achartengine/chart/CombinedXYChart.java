@@ -36,7 +36,7 @@ public class CombinedXYChart extends XYChart {
   /** The supported charts for being combined. */
   private Class<?>[] xyChartTypes = new Class<?>[] { TimeChart.class, LineChart.class,
       CubicLineChart.class, BarChart.class, BubbleChart.class, ScatterChart.class,
-      RangeBarChart.class, RangeStackedBarChart.class };
+      RangeBarChart.class, RangeStackedBarChart.class, SpectrumChart.class };
 
   /**
    * Builds a new combined XY chart instance.
@@ -125,12 +125,40 @@ public class CombinedXYChart extends XYChart {
         startIndex);
   }
 
+  /**
+   * The graphical representation of a series, drawn from a primitive points
+   * buffer.
+   * 
+   * @param canvas the canvas to paint to
+   * @param paint the paint to be used for drawing
+   * @param points the array of points to be used for drawing the series
+   * @param length the number of used values in the points array
+   * @param seriesRenderer the series renderer
+   * @param yAxisValue the minimum value of the y axis
+   * @param seriesIndex the index of the series currently being drawn
+   * @param startIndex the start index of the rendering points
+   */
+  @Override
+  public void drawSeries(Canvas canvas, Paint paint, float[] points, int length,
+      XYSeriesRenderer seriesRenderer, float yAxisValue, int seriesIndex, int startIndex) {
+    mCharts[seriesIndex].setScreenR(getScreenR());
+    mCharts[seriesIndex].setCalcRange(getCalcRange(mDataset.getSeriesAt(seriesIndex)
+        .getScaleNumber()), 0);
+    mCharts[seriesIndex].drawSeries(canvas, paint, points, length, seriesRenderer, yAxisValue, 0,
+        startIndex);
+  }
+
   @Override
   protected ClickableArea[] clickableAreasForPoints(List<Float> points, List<Double> values,
       float yAxisValue, int seriesIndex, int startIndex) {
     return mCharts[seriesIndex].clickableAreasForPoints(points, values, yAxisValue, 0, startIndex);
   }
 
+  @Override
+  protected float getClickableAreaReach(int seriesIndex) {
+    return mCharts[seriesIndex].getClickableAreaReach(0);
+  }
+
   @Override
   protected void drawSeries(XYSeries series, Canvas canvas, Paint paint, List<Float> pointsList,
       XYSeriesRenderer seriesRenderer, float yAxisValue, int seriesIndex, Orientation or,
@@ -142,6 +170,17 @@ public class CombinedXYChart extends XYChart {
         0, or, startIndex);
   }
 
+  @Override
+  protected void drawSeries(XYSeries series, Canvas canvas, Paint paint, float[] points,
+      int length, XYSeriesRenderer seriesRenderer, float yAxisValue, int seriesIndex,
+      Orientation or, int startIndex) {
+    mCharts[seriesIndex].setScreenR(getScreenR());
+    mCharts[seriesIndex].setCalcRange(getCalcRange(mDataset.getSeriesAt(seriesIndex)
+        .getScaleNumber()), 0);
+    mCharts[seriesIndex].drawSeries(series, canvas, paint, points, length, seriesRenderer,
+        yAxisValue, 0, or, startIndex);
+  }
+
   /**
    * Returns the legend shape width.
    * 
@@ -98,6 +98,12 @@ public class CubicLineChart extends LineChart {
     canvas.drawPath(p, paint);
   }
 
+  @Override
+  protected void drawPath(Canvas canvas, float[] points, int length, Paint paint,
+      boolean circular) {
+    drawPath(canvas, toPointsList(points, length), paint, circular);
+  }
+
   private void calc(List<Float> points, Point result, int index1, int index2, final float multiplier) {
     float p1x = points.get(index1);
     float p1y = points.get(index1 + 1);
@@ -110,6 +116,16 @@ public class CubicLineChart extends LineChart {
     result.setY(p1y + (diffY * multiplier));
   }
 
+  /**
+   * Returns if the chart can be drawn as a strip chart.
+   * 
+   * @return false, the curve through a point depends on the points after it
+   */
+  @Override
+  protected boolean isStripChartSupported() {
+    return false;
+  }
+
   /**
    * Returns the chart type identifier.
    * 
@@ -185,6 +185,36 @@ public class LineChart extends XYChart {
     paint.setStrokeWidth(lineWidth);
   }
 
+  /**
+   * The graphical representation of a series, drawn from a primitive points
+   * buffer.
+   * 
+   * @param canvas the canvas to paint to
+   * @param paint the paint to be used for drawing
+   * @param points the array of points to be used for drawing the series
+   * @param length the number of used values in the points array
+   * @param renderer the series renderer
+   * @param yAxisValue the minimum value of the y axis
+   * @param seriesIndex the index of the series currently being drawn
+   * @param startIndex the start index of the rendering points
+   */
+  @Override
+  public void drawSeries(Canvas canvas, Paint paint, float[] points, int length,
+      XYSeriesRenderer renderer, float yAxisValue, int seriesIndex, int startIndex) {
+    if (renderer.isFillOutsideLine()) {
+      // the fill areas are still calculated from boxed points
+      super.drawSeries(canvas, paint, points, length, renderer, yAxisValue, seriesIndex,
+          startIndex);
+      return;
+    }
+    float lineWidth = paint.getStrokeWidth();
+    paint.setStrokeWidth(renderer.getLineWidth());
+    paint.setColor(renderer.getColor());
+    paint.setStyle(Style.STROKE);
+    drawPath(canvas, points, length, paint, false);
+    paint.setStrokeWidth(lineWidth);
+  }
+
   @Override
   protected ClickableArea[] clickableAreasForPoints(List<Float> points, List<Double> values,
       float yAxisValue, int seriesIndex, int startIndex) {
@@ -236,6 +266,36 @@ public class LineChart extends XYChart {
     return ((XYSeriesRenderer) renderer).getPointStyle() != PointStyle.POINT;
   }
 
+  /**
+   * Returns if the series points may be decimated before drawing them.
+   * 
+   * @return true, as a line looks the same with the decimated points
+   */
+  @Override
+  protected boolean isDecimationSupported() {
+    return true;
+  }
+
+  /**
+   * Returns if the chart draws a series only from the points it is handed.
+   * 
+   * @return true, the line is drawn from the points alone
+   */
+  @Override
+  protected boolean isLockFreeDrawingSupported() {
+    return true;
+  }
+
+  /**
+   * Returns if the chart can be drawn as a strip chart.
+   * 
+   * @return true, a line can be continued from its last point
+   */
+  @Override
+  protected boolean isStripChartSupported() {
+    return true;
+  }
+
   /**
    * Returns the scatter chart to be used for drawing the data points.
    * 
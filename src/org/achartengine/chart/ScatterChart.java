@@ -39,6 +39,10 @@ public class ScatterChart extends XYChart {
   private static final int SHAPE_WIDTH = 10;
   /** The point shape size. */
   private float size = SIZE;
+  /** The reusable triangle path. */
+  private final float[] mTrianglePath = new float[6];
+  /** The reusable diamond path. */
+  private final float[] mDiamondPath = new float[8];
 
   ScatterChart() {
   }
@@ -122,6 +126,64 @@ public class ScatterChart extends XYChart {
     paint.setStrokeWidth(stroke);
   }
 
+  /**
+   * The graphical representation of a series, drawn from a primitive points
+   * buffer.
+   * 
+   * @param canvas the canvas to paint to
+   * @param paint the paint to be used for drawing
+   * @param points the array of points to be used for drawing the series
+   * @param length the number of used values in the points array
+   * @param renderer the series renderer
+   * @param yAxisValue the minimum value of the y axis
+   * @param seriesIndex the index of the series currently being drawn
+   * @param startIndex the start index of the rendering points
+   */
+  @Override
+  public void drawSeries(Canvas canvas, Paint paint, float[] points, int length,
+      XYSeriesRenderer renderer, float yAxisValue, int seriesIndex, int startIndex) {
+    paint.setColor(renderer.getColor());
+    final float stroke = paint.getStrokeWidth();
+    if (renderer.isFillPoints()) {
+      paint.setStyle(Style.FILL);
+    } else {
+      paint.setStrokeWidth(renderer.getPointStrokeWidth());
+      paint.setStyle(Style.STROKE);
+    }
+    switch (renderer.getPointStyle()) {
+    case X:
+      paint.setStrokeWidth(renderer.getPointStrokeWidth());
+      for (int i = 0; i < length; i += 2) {
+        drawX(canvas, paint, points[i], points[i + 1]);
+      }
+      break;
+    case CIRCLE:
+      for (int i = 0; i < length; i += 2) {
+        drawCircle(canvas, paint, points[i], points[i + 1]);
+      }
+      break;
+    case TRIANGLE:
+      for (int i = 0; i < length; i += 2) {
+        drawTriangle(canvas, paint, mTrianglePath, points[i], points[i + 1]);
+      }
+      break;
+    case SQUARE:
+      for (int i = 0; i < length; i += 2) {
+        drawSquare(canvas, paint, points[i], points[i + 1]);
+      }
+      break;
+    case DIAMOND:
+      for (int i = 0; i < length; i += 2) {
+        drawDiamond(canvas, paint, mDiamondPath, points[i], points[i + 1]);
+      }
+      break;
+    case POINT:
+      canvas.drawPoints(points, 0, length, paint);
+      break;
+    }
+    paint.setStrokeWidth(stroke);
+  }
+
   @Override
   protected ClickableArea[] clickableAreasForPoints(List<Float> points, List<Double> values,
       float yAxisValue, int seriesIndex, int startIndex) {
@@ -136,6 +198,16 @@ public class ScatterChart extends XYChart {
     return ret;
   }
 
+  /**
+   * Returns if the chart draws a series only from the points it is handed.
+   * 
+   * @return true, the points are drawn on their own
+   */
+  @Override
+  protected boolean isLockFreeDrawingSupported() {
+    return true;
+  }
+
   /**
    * Returns the legend shape width.
    * 
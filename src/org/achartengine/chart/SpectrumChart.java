@@ -0,0 +1,63 @@
+/**
+ * Copyright (C) 2009 - 2013 SC 4ViewSoft SRL
+ *  
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *  
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *  
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.achartengine.chart;
+
+import org.achartengine.model.XYMultipleSeriesDataset;
+import org.achartengine.renderer.XYMultipleSeriesRenderer;
+
+/**
+ * The spectrum chart rendering class, which draws amplitude spectra such as
+ * the ones held by <code>SpectrumSeries</code> as lines over frequency. Unlike
+ * a time line, a spectrum changes as a whole, so it is never drawn as a strip
+ * chart.
+ */
+public class SpectrumChart extends LineChart {
+  /** The constant to identify this chart type. */
+  public static final String TYPE = "Spectrum";
+
+  SpectrumChart() {
+  }
+
+  /**
+   * Builds a new spectrum chart instance.
+   * 
+   * @param dataset the multiple series dataset
+   * @param renderer the multiple series renderer
+   */
+  public SpectrumChart(XYMultipleSeriesDataset dataset, XYMultipleSeriesRenderer renderer) {
+    super(dataset, renderer);
+  }
+
+  /**
+   * Returns if the chart can be drawn as a strip chart.
+   * 
+   * @return false, a spectrum is replaced as a whole
+   */
+  @Override
+  protected boolean isStripChartSupported() {
+    return false;
+  }
+
+  /**
+   * Returns the chart type identifier.
+   * 
+   * @return the chart type
+   */
+  public String getChartType() {
+    return TYPE;
+  }
+
+}
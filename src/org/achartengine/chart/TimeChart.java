@@ -40,6 +40,24 @@ public class TimeChart extends LineChart {
   private String mDateFormat;
   /** The starting point for labels. */
   private Double mStartPoint;
+  /** The date format of the last drawn labels. */
+  private transient DateFormat mFormat;
+  /** The date format pattern the last date format was built from. */
+  private transient String mFormatPattern;
+  /** The default date format style the last date format was built from. */
+  private transient int mFormatStyle = -1;
+  /** The reusable date for formatting the labels. */
+  private transient Date mDate;
+  /** The values of the last drawn labels. */
+  private transient long[] mLabelValues;
+  /** The texts of the last drawn labels. */
+  private transient String[] mLabelTexts;
+  /** The number of the last drawn labels. */
+  private transient int mLabelCount;
+  /** The reusable values for the labels being drawn. */
+  private transient long[] mNextLabelValues;
+  /** The reusable texts for the labels being drawn. */
+  private transient String[] mNextLabelTexts;
 
   TimeChart() {
   }
@@ -97,6 +115,12 @@ public class TimeChart extends LineChart {
       boolean showGridY = mRenderer.isShowGridY();
       boolean showTickMarks = mRenderer.isShowTickMarks();
       DateFormat format = getDateFormat(xLabels.get(0), xLabels.get(length - 1));
+      if (mNextLabelValues == null || mNextLabelValues.length < length) {
+        mNextLabelValues = new long[length];
+        mNextLabelTexts = new String[length];
+      }
+      // the position in the last drawn labels, which are sorted like these
+      int previous = 0;
       for (int i = 0; i < length; i++) {
         long label = Math.round(xLabels.get(i));
         float xLabel = (float) (left + xPixelsPerUnit * (label - minX));
@@ -106,7 +130,22 @@ public class TimeChart extends LineChart {
             canvas.drawLine(xLabel, bottom, xLabel, bottom + mRenderer.getLabelsTextSize() / 3,
                 paint);
           }
-          drawText(canvas, format.format(new Date(label)), xLabel,
+          while (previous < mLabelCount && mLabelValues[previous] < label) {
+            previous++;
+          }
+          String text;
+          if (previous < mLabelCount && mLabelValues[previous] == label) {
+            text = mLabelTexts[previous];
+          } else {
+            if (mDate == null) {
+              mDate = new Date();
+            }
+            mDate.setTime(label);
+            text = format.format(mDate);
+          }
+          mNextLabelValues[i] = label;
+          mNextLabelTexts[i] = text;
+          drawText(canvas, text, xLabel,
               bottom + mRenderer.getLabelsTextSize() * 4 / 3 + mRenderer.getXLabelsPadding(),
               paint, mRenderer.getXLabelsAngle());
         }
@@ -115,35 +154,62 @@ public class TimeChart extends LineChart {
           canvas.drawLine(xLabel, bottom, xLabel, top, paint);
         }
       }
+      if (showLabels) {
+        // the drawn labels become the ones to reuse the texts of
+        long[] values = mLabelValues;
+        String[] texts = mLabelTexts;
+        mLabelValues = mNextLabelValues;
+        mLabelTexts = mNextLabelTexts;
+        mLabelCount = length;
+        mNextLabelValues = values;
+        mNextLabelTexts = texts;
+      }
     }
     drawXTextLabels(xTextLabelLocations, canvas, paint, true, left, top, bottom, xPixelsPerUnit,
         minX, maxX);
   }
 
   /**
-   * Returns the date format pattern to be used, based on the date range.
+   * Returns the date format pattern to be used, based on the date range. The
+   * format of the last call is reused if it would be built the same way, and
+   * the label texts are only kept for as long as the format stays the same.
    * 
    * @param start the start date in milliseconds
    * @param end the end date in milliseconds
    * @return the date format
    */
   private DateFormat getDateFormat(double start, double end) {
+    double diff = end - start;
+    int style = 0;
+    if (diff > DAY && diff < 5 * DAY) {
+      style = 1;
+    } else if (diff < DAY) {
+      style = 2;
+    }
+    if (mFormat != null && mFormatStyle == style
+        && (mDateFormat == null ? mFormatPattern == null : mDateFormat.equals(mFormatPattern))) {
+      return mFormat;
+    }
+    mFormatPattern = mDateFormat;
+    mFormatStyle = style;
+    mLabelCount = 0;
     if (mDateFormat != null) {
       SimpleDateFormat format = null;
       try {
         format = new SimpleDateFormat(mDateFormat);
+        mFormat = format;
         return format;
       } catch (Exception e) {
         // do nothing here
       }
     }
     DateFormat format = SimpleDateFormat.getDateInstance(SimpleDateFormat.MEDIUM);
-    double diff = end - start;
-    if (diff > DAY && diff < 5 * DAY) {
+    if (style == 1) {
       format = SimpleDateFormat.getDateTimeInstance(SimpleDateFormat.SHORT, SimpleDateFormat.SHORT);
-    } else if (diff < DAY) {
+    } else if (style == 2) {
       format = SimpleDateFormat.getTimeInstance(SimpleDateFormat.MEDIUM);
     }
+    mFormat = format;
     return format;
   }
 
@@ -18,25 +18,29 @@ package org.achartengine.chart;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
-import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
-import java.util.Map.Entry;
-import java.util.SortedMap;
 
 import org.achartengine.model.Point;
 import org.achartengine.model.SeriesSelection;
 import org.achartengine.model.XYMultipleSeriesDataset;
 import org.achartengine.model.XYSeries;
+import org.achartengine.model.XYSeriesSnapshot;
 import org.achartengine.renderer.BasicStroke;
 import org.achartengine.renderer.DefaultRenderer;
 import org.achartengine.renderer.SimpleSeriesRenderer;
 import org.achartengine.renderer.XYMultipleSeriesRenderer;
 import org.achartengine.renderer.XYMultipleSeriesRenderer.Orientation;
 import org.achartengine.renderer.XYSeriesRenderer;
+import org.achartengine.renderer.XYSeriesRenderer.Decimation;
+import org.achartengine.util.Decimator;
+import org.achartengine.util.LabelCache;
 import org.achartengine.util.MathHelper;
 
+import android.graphics.Bitmap;
+import android.graphics.Bitmap.Config;
 import android.graphics.Canvas;
+import android.graphics.Color;
 import android.graphics.DashPathEffect;
 import android.graphics.Paint;
 import android.graphics.Paint.Align;
@@ -44,6 +48,7 @@ import android.graphics.Paint.Cap;
 import android.graphics.Paint.Join;
 import android.graphics.Paint.Style;
 import android.graphics.PathEffect;
+import android.graphics.PorterDuff;
 import android.graphics.Rect;
 import android.graphics.RectF;
 import android.graphics.Typeface;
@@ -67,11 +72,80 @@ public abstract class XYChart extends AbstractChart {
   /** The calculated range. */
   private final Map<Integer, double[]> mCalcRange = new HashMap<Integer, double[]>();
 
-  /**
-   * The clickable areas for all points. The array index is the series index,
-   * and the RectF list index is the point index in that series.
-   */
-  private Map<Integer, List<ClickableArea>> clickableAreas = new HashMap<Integer, List<ClickableArea>>();
+  /** The scales of the last frame drawn with clicks enabled. */
+  private transient HitFrame mHitFrame;
+  /** The reusable screen coordinates buffers, one per series. */
+  private transient float[][] mPoints;
+  /** The reusable list for the chart types that render from boxed points. */
+  private transient List<Float> mPointsList;
+  /** The reusable series titles. */
+  private transient String[] mTitles;
+  /** The reusable per scale minimum X values. */
+  private transient double[] mMinX;
+  /** The reusable per scale maximum X values. */
+  private transient double[] mMaxX;
+  /** The reusable per scale minimum Y values. */
+  private transient double[] mMinY;
+  /** The reusable per scale maximum Y values. */
+  private transient double[] mMaxY;
+  /** The reusable per scale flags for a set minimum X value. */
+  private transient boolean[] mIsMinXSet;
+  /** The reusable per scale flags for a set maximum X value. */
+  private transient boolean[] mIsMaxXSet;
+  /** The reusable per scale flags for a set minimum Y value. */
+  private transient boolean[] mIsMinYSet;
+  /** The reusable per scale flags for a set maximum Y value. */
+  private transient boolean[] mIsMaxYSet;
+  /** The reusable per scale X axis pixels per unit. */
+  private transient double[] mXPixelsPerUnit;
+  /** The reusable per scale Y axis pixels per unit. */
+  private transient double[] mYPixelsPerUnit;
+  /** The reusable annotation text bounds. */
+  private transient Rect mAnnotationBounds;
+  /** The reusable buffer for the decimated points. */
+  private transient float[] mDecimated;
+  /** The strip chart plot, its columns are used as a ring buffer. */
+  private transient Bitmap mStripBitmap;
+  /** The canvas drawing to the strip chart plot. */
+  private transient Canvas mStripCanvas;
+  /** The X value at the left edge of the strip chart plot after a redraw. */
+  private transient double mStripBaseX;
+  /** The strip chart X axis pixels per unit. */
+  private transient double mStripXPixelsPerUnit;
+  /** The strip chart scroll position, in pixels since the last redraw. */
+  private transient double mStripScroll;
+  /** The per scale minimum Y values the strip chart was drawn with. */
+  private transient double[] mStripMinY;
+  /** The per scale maximum Y values the strip chart was drawn with. */
+  private transient double[] mStripMaxY;
+  /** The X value of the last point drawn to the strip chart, per series. */
+  private transient double[] mStripLastX;
+  /** The cached static layer, drawn over the series and the X axis labels. */
+  private transient Bitmap mLayerBitmap;
+  /** The canvas drawing to the cached static layer. */
+  private transient Canvas mLayerCanvas;
+  /** The numbers the cached static layer was drawn with, null if invalid. */
+  private transient double[] mLayerKey;
+  /** The texts the cached static layer was drawn with. */
+  private transient String[] mLayerText;
+  /** The reusable numbers for checking the cached static layer. */
+  private transient double[] mLayerKeyScratch;
+  /** The reusable texts for checking the cached static layer. */
+  private transient String[] mLayerTextScratch;
+  /** The series titles the cached legend size was calculated for. */
+  private transient String[] mLegendTitles;
+  /** The view width and height the cached legend size was calculated for. */
+  private transient int mLegendWidth, mLegendHeight;
+  /** The cached legend size. */
+  private transient int mLegendSize;
+  /** The recently used axis labels. */
+  private transient LabelCache mLabelCache;
+  /** The values being drawn. */
+  private transient XYSeriesSnapshot mSnapshot;
+  /** The captured axis ranges, min X, max X, min Y and max Y per scale. */
+  private transient double[] mCapturedRanges;
+  /** If the captured axis ranges are drawn instead of the renderer ones. */
+  private transient boolean mRangesCaptured;
 
   protected XYChart() {
   }
@@ -94,6 +168,34 @@ public abstract class XYChart extends AbstractChart {
     mRenderer = renderer;
   }
 
+  /**
+   * Captures the axis ranges of the renderer. Until they are released, every
+   * frame is drawn with the captured ranges, so a render thread draws a
+   * consistent viewport while touch gestures keep changing the renderer on
+   * the user interface thread. Must not be called while a frame is drawn.
+   */
+  public void captureAxisRanges() {
+    int scales = mRenderer.getScalesCount();
+    if (mCapturedRanges == null || mCapturedRanges.length != scales * 4) {
+      mCapturedRanges = new double[scales * 4];
+    }
+    for (int i = 0; i < scales; i++) {
+      mCapturedRanges[i * 4] = mRenderer.getXAxisMin(i);
+      mCapturedRanges[i * 4 + 1] = mRenderer.getXAxisMax(i);
+      mCapturedRanges[i * 4 + 2] = mRenderer.getYAxisMin(i);
+      mCapturedRanges[i * 4 + 3] = mRenderer.getYAxisMax(i);
+    }
+    mRangesCaptured = true;
+  }
+
+  /**
+   * Releases the captured axis ranges, frames are drawn with the ranges of the
+   * renderer again. Must not be called while a frame is drawn.
+   */
+  public void releaseAxisRanges() {
+    mRangesCaptured = false;
+  }
+
   /**
    * The graphical representation of the XY chart.
    * 
@@ -112,13 +214,25 @@ public abstract class XYChart extends AbstractChart {
     int top = y + margins[0];
     int right = x + width - margins[3];
     int sLength = mDataset.getSeriesCount();
-    String[] titles = new String[sLength];
+    if (mTitles == null || mTitles.length != sLength) {
+      mTitles = new String[sLength];
+    }
+    String[] titles = mTitles;
     for (int i = 0; i < sLength; i++) {
       titles[i] = mDataset.getSeriesAt(i).getTitle();
     }
     if (mRenderer.isFitLegend() && mRenderer.isShowLegend()) {
-      legendSize = drawLegend(canvas, mRenderer, titles, left, right, y, width, height, legendSize,
-          paint, true);
+      if (mRenderer.isLayerCacheEnabled() && mLegendTitles != null && mLegendWidth == width
+          && mLegendHeight == height && Arrays.equals(titles, mLegendTitles)) {
+        legendSize = mLegendSize;
+      } else {
+        legendSize = drawLegend(canvas, mRenderer, titles, left, right, y, width, height,
+            legendSize, paint, true);
+        mLegendTitles = titles.clone();
+        mLegendWidth = width;
+        mLegendHeight = height;
+        mLegendSize = legendSize;
+      }
     }
     int bottom = y + height - margins[2] - legendSize;
     if (mScreenR == null) {
@@ -151,7 +265,11 @@ public abstract class XYChart extends AbstractChart {
     if (mScale < 1) {
       mTranslate *= -1;
     }
-    mCenter = new Point((x + width) / 2, (y + height) / 2);
+    if (mCenter == null) {
+      mCenter = new Point();
+    }
+    mCenter.setX((x + width) / 2);
+    mCenter.setY((y + height) / 2);
     if (rotate) {
       transform(canvas, angle, false);
     }
@@ -164,30 +282,52 @@ public abstract class XYChart extends AbstractChart {
     if (maxScaleNumber < 0) {
       return;
     }
-    double[] minX = new double[maxScaleNumber];
-    double[] maxX = new double[maxScaleNumber];
-    double[] minY = new double[maxScaleNumber];
-    double[] maxY = new double[maxScaleNumber];
-    boolean[] isMinXSet = new boolean[maxScaleNumber];
-    boolean[] isMaxXSet = new boolean[maxScaleNumber];
-    boolean[] isMinYSet = new boolean[maxScaleNumber];
-    boolean[] isMaxYSet = new boolean[maxScaleNumber];
+    if (mMinX == null || mMinX.length != maxScaleNumber) {
+      mMinX = new double[maxScaleNumber];
+      mMaxX = new double[maxScaleNumber];
+      mMinY = new double[maxScaleNumber];
+      mMaxY = new double[maxScaleNumber];
+      mIsMinXSet = new boolean[maxScaleNumber];
+      mIsMaxXSet = new boolean[maxScaleNumber];
+      mIsMinYSet = new boolean[maxScaleNumber];
+      mIsMaxYSet = new boolean[maxScaleNumber];
+      mXPixelsPerUnit = new double[maxScaleNumber];
+      mYPixelsPerUnit = new double[maxScaleNumber];
+    }
+    double[] minX = mMinX;
+    double[] maxX = mMaxX;
+    double[] minY = mMinY;
+    double[] maxY = mMaxY;
+    boolean[] isMinXSet = mIsMinXSet;
+    boolean[] isMaxXSet = mIsMaxXSet;
+    boolean[] isMinYSet = mIsMinYSet;
+    boolean[] isMaxYSet = mIsMaxYSet;
 
     for (int i = 0; i < maxScaleNumber; i++) {
-      minX[i] = mRenderer.getXAxisMin(i);
-      maxX[i] = mRenderer.getXAxisMax(i);
-      minY[i] = mRenderer.getYAxisMin(i);
-      maxY[i] = mRenderer.getYAxisMax(i);
-      isMinXSet[i] = mRenderer.isMinXSet(i);
-      isMaxXSet[i] = mRenderer.isMaxXSet(i);
-      isMinYSet[i] = mRenderer.isMinYSet(i);
-      isMaxYSet[i] = mRenderer.isMaxYSet(i);
+      if (mRangesCaptured && i * 4 < mCapturedRanges.length) {
+        minX[i] = mCapturedRanges[i * 4];
+        maxX[i] = mCapturedRanges[i * 4 + 1];
+        minY[i] = mCapturedRanges[i * 4 + 2];
+        maxY[i] = mCapturedRanges[i * 4 + 3];
+      } else {
+        minX[i] = mRenderer.getXAxisMin(i);
+        maxX[i] = mRenderer.getXAxisMax(i);
+        minY[i] = mRenderer.getYAxisMin(i);
+        maxY[i] = mRenderer.getYAxisMax(i);
+      }
+      // the renderer tells unset bounds by the same values
+      isMinXSet[i] = minX[i] != MathHelper.NULL_VALUE;
+      isMaxXSet[i] = maxX[i] != -MathHelper.NULL_VALUE;
+      isMinYSet[i] = minY[i] != MathHelper.NULL_VALUE;
+      isMaxYSet[i] = maxY[i] != -MathHelper.NULL_VALUE;
       if (mCalcRange.get(i) == null) {
         mCalcRange.put(i, new double[4]);
       }
     }
-    double[] xPixelsPerUnit = new double[maxScaleNumber];
-    double[] yPixelsPerUnit = new double[maxScaleNumber];
+    double[] xPixelsPerUnit = mXPixelsPerUnit;
+    double[] yPixelsPerUnit = mYPixelsPerUnit;
+    Arrays.fill(xPixelsPerUnit, 0);
+    Arrays.fill(yPixelsPerUnit, 0);
     for (int i = 0; i < sLength; i++) {
       XYSeries series = mDataset.getSeriesAt(i);
       int scale = series.getScaleNumber();
@@ -231,12 +371,27 @@ public abstract class XYChart extends AbstractChart {
     }
 
     boolean hasValues = false;
-    // use a linked list for these reasons:
-    // 1) Avoid a large contiguous memory allocation
-    // 2) We don't need random seeking, only sequential reading/writing, so
-    // linked list makes sense
-    clickableAreas = new HashMap<Integer, List<ClickableArea>>();
-    for (int i = 0; i < sLength; i++) {
+    // clicks are hit tested against the series values, all they need from the
+    // frame are the scales it was drawn with
+    if (mRenderer.isClickEnabled()) {
+      if (mHitFrame == null) {
+        mHitFrame = new HitFrame();
+      }
+      mHitFrame.set(left, bottom, minX, maxX, minY, xPixelsPerUnit, yPixelsPerUnit);
+    }
+    if (mPoints == null || mPoints.length < sLength) {
+      mPoints = Arrays.copyOf(mPoints == null ? new float[0][] : mPoints, sLength);
+    }
+    boolean strip = mRenderer.isStripChart() && isStripChartSupported()
+        && or == Orientation.HORIZONTAL;
+    if (strip) {
+      hasValues = drawStripChart(canvas, paint, left, top, right, bottom, minX, maxX, minY, maxY,
+          xPixelsPerUnit, yPixelsPerUnit, or);
+    } else {
+      mStripBitmap = null;
+      mStripCanvas = null;
+    }
+    for (int i = 0; i < sLength && !strip; i++) {
       XYSeries series = mDataset.getSeriesAt(i);
       int scale = series.getScaleNumber();
       if (series.getItemCount() == 0) {
@@ -246,83 +401,59 @@ public abstract class XYChart extends AbstractChart {
       hasValues = true;
       XYSeriesRenderer seriesRenderer = (XYSeriesRenderer) mRenderer.getSeriesRendererAt(i);
 
-      // int originalValuesLength = series.getItemCount();
-      // int valuesLength = originalValuesLength;
-      // int length = valuesLength * 2;
-
-      List<Float> points = new ArrayList<Float>();
-      List<Double> values = new ArrayList<Double>();
+      float[] points = mPoints[i];
+      int length = 0;
       float yAxisValue = Math.min(bottom, (float) (bottom + yPixelsPerUnit[scale] * minY[scale]));
-      LinkedList<ClickableArea> clickableArea = new LinkedList<ClickableArea>();
-
-      clickableAreas.put(i, clickableArea);
 
-      synchronized (series) {
-        SortedMap<Double, Double> range = series.getRange(minX[scale], maxX[scale],
-            seriesRenderer.isDisplayBoundingPoints());
+      synchronized (getDrawingLock(series, seriesRenderer)) {
+        // zoomed out far enough, a summary draws the same as all the values
+        XYSeries source = series.getSummary(1 / xPixelsPerUnit[scale]);
+        XYSeriesSnapshot snapshot = mSnapshot = source.snapshot(minX[scale], maxX[scale],
+            seriesRenderer.isDisplayBoundingPoints(), mSnapshot);
+        int first = snapshot.getFirstIndex();
+        int count = snapshot.getCount();
+        double[] xs = snapshot.getXs();
+        double[] ys = snapshot.getYs();
         int startIndex = -1;
 
-        for (Entry<Double, Double> value : range.entrySet()) {
-          double xValue = value.getKey();
-          double yValue = value.getValue();
+        for (int k = 0; k < count; k++) {
+          double xValue = xs[k];
+          double yValue = ys[k];
           if (startIndex < 0 && (!isNullValue(yValue) || isRenderNullValues())) {
-            startIndex = series.getIndexForKey(xValue);
+            startIndex = first + k;
           }
 
-          // points.add((float) (left + xPixelsPerUnit[scale]
-          // * (value.getKey().floatValue() - minX[scale])));
-          // points.add((float) (bottom - yPixelsPerUnit[scale]
-          // * (value.getValue().floatValue() - minY[scale])));
-          values.add(value.getKey());
-          values.add(value.getValue());
-
-          if (!isNullValue(yValue)) {
-            points.add((float) (left + xPixelsPerUnit[scale] * (xValue - minX[scale])));
-            points.add((float) (bottom - yPixelsPerUnit[scale] * (yValue - minY[scale])));
-          } else if (isRenderNullValues()) {
-            points.add((float) (left + xPixelsPerUnit[scale] * (xValue - minX[scale])));
-            points.add((float) (bottom - yPixelsPerUnit[scale] * (-minY[scale])));
+          if (!isNullValue(yValue) || isRenderNullValues()) {
+            points = ensureCapacity(points, length + 2);
+            points[length] = (float) (left + xPixelsPerUnit[scale] * (xValue - minX[scale]));
+            if (!isNullValue(yValue)) {
+              points[length + 1] = (float) (bottom - yPixelsPerUnit[scale]
+                  * (yValue - minY[scale]));
+            } else {
+              points[length + 1] = (float) (bottom - yPixelsPerUnit[scale] * (-minY[scale]));
+            }
+            length += 2;
           } else {
-            if (points.size() > 0) {
-              drawSeries(series, canvas, paint, points, seriesRenderer, yAxisValue, i, or,
+            if (length > 0) {
+              drawSeries(source, canvas, paint, points, length, seriesRenderer, yAxisValue, i, or,
                   startIndex);
-              ClickableArea[] clickableAreasForSubSeries = clickableAreasForPoints(points, values,
-                  yAxisValue, i, startIndex);
-              clickableArea.addAll(Arrays.asList(clickableAreasForSubSeries));
-              points.clear();
-              values.clear();
+              length = 0;
               startIndex = -1;
             }
-            clickableArea.add(null);
-          }
-        }
-
-        int count = series.getAnnotationCount();
-        if (count > 0) {
-          paint.setColor(seriesRenderer.getAnnotationsColor());
-          paint.setTextSize(seriesRenderer.getAnnotationsTextSize());
-          paint.setTextAlign(seriesRenderer.getAnnotationsTextAlign());
-          Rect bound = new Rect();
-          for (int j = 0; j < count; j++) {
-            float xS = (float) (left + xPixelsPerUnit[scale]
-                * (series.getAnnotationX(j) - minX[scale]));
-            float yS = (float) (bottom - yPixelsPerUnit[scale]
-                * (series.getAnnotationY(j) - minY[scale]));
-            paint.getTextBounds(series.getAnnotationAt(j), 0, series.getAnnotationAt(j).length(),
-                bound);
-            if (xS < (xS + bound.width()) && yS < canvas.getHeight()) {
-              drawString(canvas, series.getAnnotationAt(j), xS, yS, paint);
-            }
           }
         }
 
-        if (points.size() > 0) {
-          drawSeries(series, canvas, paint, points, seriesRenderer, yAxisValue, i, or, startIndex);
-          ClickableArea[] clickableAreasForSubSeries = clickableAreasForPoints(points, values,
-              yAxisValue, i, startIndex);
-          clickableArea.addAll(Arrays.asList(clickableAreasForSubSeries));
+        if (length > 0) {
+          drawSeries(source, canvas, paint, points, length, seriesRenderer, yAxisValue, i, or,
+              startIndex);
         }
       }
+      synchronized (series) {
+        drawAnnotations(canvas, paint, series, seriesRenderer, left, bottom,
+            xPixelsPerUnit[scale], yPixelsPerUnit[scale], minX[scale], minY[scale]);
+      }
+      // keep the grown buffers for the next frame
+      mPoints[i] = points;
     }
     // draw stuff over the margins such as data doesn't render on these areas
     drawBackground(mRenderer, canvas, x, bottom, width, height - bottom, paint, true,
@@ -343,12 +474,8 @@ public abstract class XYChart extends AbstractChart {
 
     boolean showLabels = mRenderer.isShowLabels() && hasValues;
     boolean showGridX = mRenderer.isShowGridX();
-    boolean showTickMarks = mRenderer.isShowTickMarks();
-    // boolean showCustomTextGridX = mRenderer.isShowCustomTextGridX();
-    boolean showCustomTextGridY = mRenderer.isShowCustomTextGridY();
     if (showLabels || showGridX) {
       List<Double> xLabels = getValidLabels(getXLabels(minX[0], maxX[0], mRenderer.getXLabels()));
-      Map<Integer, List<Double>> allYLabels = getYLabels(minY, maxY, maxScaleNumber);
 
       int xLabelsLeft = left;
       if (showLabels) {
@@ -361,6 +488,333 @@ public abstract class XYChart extends AbstractChart {
       }
       drawXLabels(xLabels, mRenderer.getXTextLabelLocations(), canvas, paint, xLabelsLeft, top,
           bottom, xPixelsPerUnit[0], minX[0], maxX[0]);
+    }
+    if (mRenderer.isLayerCacheEnabled() && or == Orientation.HORIZONTAL) {
+      if (!isStaticLayerValid(titles, x, y, width, height, left, top, right, bottom, legendSize,
+          showLabels, maxScaleNumber, minY, maxY)) {
+        if (mLayerBitmap == null || mLayerBitmap.getWidth() != width
+            || mLayerBitmap.getHeight() != height) {
+          mLayerBitmap = Bitmap.createBitmap(width, height, Config.ARGB_8888);
+          mLayerCanvas = new Canvas(mLayerBitmap);
+        } else {
+          mLayerBitmap.eraseColor(Color.TRANSPARENT);
+        }
+        mLayerCanvas.save();
+        mLayerCanvas.translate(-x, -y);
+        drawStaticLayer(mLayerCanvas, paint, titles, x, y, width, height, left, top, right,
+            bottom, legendSize, showLabels, maxScaleNumber, minY, maxY, yPixelsPerUnit, or, angle);
+        mLayerCanvas.restore();
+      }
+      canvas.drawBitmap(mLayerBitmap, x, y, null);
+    } else {
+      mLayerBitmap = null;
+      mLayerCanvas = null;
+      mLayerKey = null;
+      drawStaticLayer(canvas, paint, titles, x, y, width, height, left, top, right, bottom,
+          legendSize, showLabels, maxScaleNumber, minY, maxY, yPixelsPerUnit, or, angle);
+    }
+    if (rotate) {
+      transform(canvas, angle, true);
+    }
+  }
+
+  /**
+   * Draws the annotations of a series.
+   * 
+   * @param canvas the canvas to paint to
+   * @param paint the paint
+   * @param series the series
+   * @param seriesRenderer the series renderer
+   * @param left the left edge of the plot
+   * @param bottom the bottom edge of the plot
+   * @param xPixelsPerUnit the X axis pixels per unit
+   * @param yPixelsPerUnit the Y axis pixels per unit
+   * @param minX the minimum visible X value
+   * @param minY the minimum visible Y value
+   */
+  private void drawAnnotations(Canvas canvas, Paint paint, XYSeries series,
+      XYSeriesRenderer seriesRenderer, int left, int bottom, double xPixelsPerUnit,
+      double yPixelsPerUnit, double minX, double minY) {
+    int count = series.getAnnotationCount();
+    if (count > 0) {
+      paint.setColor(seriesRenderer.getAnnotationsColor());
+      paint.setTextSize(seriesRenderer.getAnnotationsTextSize());
+      paint.setTextAlign(seriesRenderer.getAnnotationsTextAlign());
+      if (mAnnotationBounds == null) {
+        mAnnotationBounds = new Rect();
+      }
+      Rect bound = mAnnotationBounds;
+      for (int j = 0; j < count; j++) {
+        float xS = (float) (left + xPixelsPerUnit * (series.getAnnotationX(j) - minX));
+        float yS = (float) (bottom - yPixelsPerUnit * (series.getAnnotationY(j) - minY));
+        paint.getTextBounds(series.getAnnotationAt(j), 0, series.getAnnotationAt(j).length(),
+            bound);
+        if (xS < (xS + bound.width()) && yS < canvas.getHeight()) {
+          drawString(canvas, series.getAnnotationAt(j), xS, yS, paint);
+        }
+      }
+    }
+  }
+
+  /**
+   * Draws the series as a strip chart. The plot is kept in a bitmap whose
+   * columns are used as a ring buffer, so moving the visible X range forward
+   * only takes clearing the columns that scrolled in and drawing the points
+   * that were not drawn yet. Any other change of the visible range, or of the
+   * plot size, redraws the bitmap from the series summary.
+   * 
+   * @param canvas the canvas to paint to
+   * @param paint the paint
+   * @param left the left edge of the plot
+   * @param top the top edge of the plot
+   * @param right the right edge of the plot
+   * @param bottom the bottom edge of the plot
+   * @param minX the per scale minimum visible X values
+   * @param maxX the per scale maximum visible X values
+   * @param minY the per scale minimum visible Y values
+   * @param maxY the per scale maximum visible Y values
+   * @param xPixelsPerUnit the per scale X axis pixels per unit
+   * @param yPixelsPerUnit the per scale Y axis pixels per unit
+   * @param or the orientation
+   * @return if any series has values
+   */
+  private boolean drawStripChart(Canvas canvas, Paint paint, int left, int top, int right,
+      int bottom, double[] minX, double[] maxX, double[] minY, double[] maxY,
+      double[] xPixelsPerUnit, double[] yPixelsPerUnit, Orientation or) {
+    int width = right - left;
+    int height = bottom - top;
+    int sLength = mDataset.getSeriesCount();
+    if (width <= 0 || height <= 0 || xPixelsPerUnit[0] == 0) {
+      return false;
+    }
+    double scroll = (minX[0] - mStripBaseX) * xPixelsPerUnit[0];
+    // the X axis pixels per unit are computed from a range that may be off by
+    // a rounding error on every frame
+    boolean redraw = mStripBitmap == null || mStripBitmap.getWidth() != width
+        || mStripBitmap.getHeight() != height
+        || Math.abs(xPixelsPerUnit[0] - mStripXPixelsPerUnit) > mStripXPixelsPerUnit * 1e-9
+        || mStripLastX.length != sLength || !Arrays.equals(minY, mStripMinY)
+        || !Arrays.equals(maxY, mStripMaxY) || scroll < mStripScroll
+        || scroll - mStripScroll >= width;
+    for (int i = 0; i < sLength && !redraw; i++) {
+      XYSeries series = mDataset.getSeriesAt(i);
+      // the series was cleared and filled again
+      redraw = series.getItemCount() > 0 && series.getMaxX() < mStripLastX[i];
+    }
+    if (redraw) {
+      if (mStripBitmap == null || mStripBitmap.getWidth() != width
+          || mStripBitmap.getHeight() != height) {
+        mStripBitmap = Bitmap.createBitmap(width, height, Config.ARGB_8888);
+        mStripCanvas = new Canvas(mStripBitmap);
+      } else {
+        mStripBitmap.eraseColor(Color.TRANSPARENT);
+      }
+      mStripBaseX = minX[0];
+      mStripXPixelsPerUnit = xPixelsPerUnit[0];
+      mStripMinY = minY.clone();
+      mStripMaxY = maxY.clone();
+      mStripLastX = new double[sLength];
+      Arrays.fill(mStripLastX, -Double.MAX_VALUE);
+      scroll = 0;
+    } else {
+      clearStripColumns(mStripScroll + width, scroll + width, width, height);
+    }
+    mStripScroll = scroll;
+
+    boolean hasValues = false;
+    for (int i = 0; i < sLength; i++) {
+      XYSeries series = mDataset.getSeriesAt(i);
+      int scale = series.getScaleNumber();
+      if (series.getItemCount() == 0) {
+        continue;
+      }
+      hasValues = true;
+      XYSeriesRenderer seriesRenderer = (XYSeriesRenderer) mRenderer.getSeriesRendererAt(i);
+      synchronized (getDrawingLock(series, seriesRenderer)) {
+        double lastX = mStripLastX[i];
+        double from = Math.max(lastX, minX[scale]);
+        // a redrawn plot gets its bulk from the summary, only the values
+        // appended later are drawn one by one
+        XYSeries source = lastX < minX[scale] ? series.getSummary(1 / xPixelsPerUnit[0])
+            : series;
+        XYSeriesSnapshot snapshot = mSnapshot = source.snapshot(from, maxX[scale],
+            seriesRenderer.isDisplayBoundingPoints(), mSnapshot);
+        int firstIndex = snapshot.getFirstIndex();
+        int count = snapshot.getCount();
+        double[] xs = snapshot.getXs();
+        double[] ys = snapshot.getYs();
+        int start = 0;
+        if (lastX >= minX[scale]) {
+          // continue the line from the last point drawn
+          while (start < count && xs[start] < lastX) {
+            start++;
+          }
+        }
+        if (count - start > (lastX >= minX[scale] ? 1 : 0)) {
+          // points before the drawn area or beyond the visible range would end
+          // up in columns that wrap around
+          double clipLeft = (from - mStripBaseX) * xPixelsPerUnit[0];
+          double clipRight = scroll + width;
+          long first = (long) Math.floor(clipLeft / width);
+          long last = (long) Math.floor(clipRight / width);
+          for (long k = first; k <= last; k++) {
+            double offset = k * (double) width;
+            float l = (float) Math.max(0, clipLeft - offset);
+            float r = (float) Math.min(width, clipRight - offset);
+            if (l < r) {
+              mStripCanvas.save();
+              mStripCanvas.clipRect(l, 0, r, height);
+              drawStripRange(source, xs, ys, start, count, firstIndex, seriesRenderer, i, offset,
+                  height, xPixelsPerUnit[0], yPixelsPerUnit[scale], minY[scale], paint, or);
+              mStripCanvas.restore();
+            }
+          }
+          double lastKey = xs[count - 1];
+          if (lastKey > maxX[scale]) {
+            // the point beyond the visible range gets drawn again, once the
+            // range reaches it
+            if (count - 1 > start) {
+              mStripLastX[i] = xs[count - 2];
+            }
+          } else {
+            mStripLastX[i] = lastKey;
+          }
+        }
+      }
+    }
+
+    float shift = (float) (scroll - Math.floor(scroll / width) * width);
+    canvas.save();
+    canvas.clipRect(left, top, right, bottom);
+    canvas.drawBitmap(mStripBitmap, left - shift, top, null);
+    canvas.drawBitmap(mStripBitmap, left - shift + width, top, null);
+    canvas.restore();
+
+    for (int i = 0; i < sLength; i++) {
+      XYSeries series = mDataset.getSeriesAt(i);
+      int scale = series.getScaleNumber();
+      XYSeriesRenderer seriesRenderer = (XYSeriesRenderer) mRenderer.getSeriesRendererAt(i);
+      synchronized (series) {
+        drawAnnotations(canvas, paint, series, seriesRenderer, left, bottom, xPixelsPerUnit[0],
+            yPixelsPerUnit[scale], minX[0], minY[scale]);
+      }
+    }
+    return hasValues;
+  }
+
+  /**
+   * Clears the strip chart plot columns that scrolled into view.
+   * 
+   * @param from the scroll position of the first column to clear
+   * @param to the scroll position after the last column to clear
+   * @param width the plot width
+   * @param height the plot height
+   */
+  private void clearStripColumns(double from, double to, int width, int height) {
+    long first = (long) Math.floor(from / width);
+    long last = (long) Math.floor(to / width);
+    for (long k = first; k <= last; k++) {
+      double offset = k * (double) width;
+      float l = (float) Math.max(0, from - offset);
+      float r = (float) Math.min(width, to - offset);
+      if (l < r) {
+        mStripCanvas.save();
+        mStripCanvas.clipRect(l, 0, r, height);
+        mStripCanvas.drawColor(Color.TRANSPARENT, PorterDuff.Mode.CLEAR);
+        mStripCanvas.restore();
+      }
+    }
+  }
+
+  /**
+   * Draws a range of series values to the strip chart plot.
+   * 
+   * @param series the series
+   * @param xs the X values
+   * @param ys the Y values
+   * @param start the index of the first value to draw
+   * @param end the index after the last value to draw
+   * @param first the series index of the first value
+   * @param seriesRenderer the series renderer
+   * @param seriesIndex the series index
+   * @param offset the scroll position of the first plot column
+   * @param height the plot height
+   * @param xPixelsPerUnit the X axis pixels per unit
+   * @param yPixelsPerUnit the Y axis pixels per unit
+   * @param minY the minimum visible Y value
+   * @param paint the paint
+   * @param or the orientation
+   */
+  private void drawStripRange(XYSeries series, double[] xs, double[] ys, int start, int end,
+      int first, XYSeriesRenderer seriesRenderer, int seriesIndex, double offset, int height,
+      double xPixelsPerUnit, double yPixelsPerUnit, double minY, Paint paint, Orientation or) {
+    float[] points = mPoints[seriesIndex];
+    int length = 0;
+    int startIndex = -1;
+    float yAxisValue = Math.min(height, (float) (height + yPixelsPerUnit * minY));
+    for (int k = start; k < end; k++) {
+      double xValue = xs[k];
+      double yValue = ys[k];
+      if (!isNullValue(yValue) || isRenderNullValues()) {
+        if (startIndex < 0) {
+          startIndex = first + k;
+        }
+        points = ensureCapacity(points, length + 2);
+        points[length] = (float) (xPixelsPerUnit * (xValue - mStripBaseX) - offset);
+        if (!isNullValue(yValue)) {
+          points[length + 1] = (float) (height - yPixelsPerUnit * (yValue - minY));
+        } else {
+          points[length + 1] = (float) (height - yPixelsPerUnit * (-minY));
+        }
+        length += 2;
+      } else if (length > 0) {
+        drawSeries(series, mStripCanvas, paint, points, length, seriesRenderer, yAxisValue,
+            seriesIndex, or, startIndex);
+        length = 0;
+        startIndex = -1;
+      }
+    }
+    if (length > 0) {
+      drawSeries(series, mStripCanvas, paint, points, length, seriesRenderer, yAxisValue,
+          seriesIndex, or, startIndex);
+    }
+    mPoints[seriesIndex] = points;
+  }
+
+  /**
+   * Draws the parts of the chart that only depend on the Y axis ranges, the
+   * view size and the renderer: the Y axis labels and grid, the titles, the
+   * legend and the axes.
+   * 
+   * @param canvas the canvas to paint to
+   * @param paint the paint
+   * @param titles the series titles
+   * @param x the top left x value of the view to draw to
+   * @param y the top left y value of the view to draw to
+   * @param width the width of the view to draw to
+   * @param height the height of the view to draw to
+   * @param left the left edge of the plot
+   * @param top the top edge of the plot
+   * @param right the right edge of the plot
+   * @param bottom the bottom edge of the plot
+   * @param legendSize the legend size
+   * @param showLabels if the labels are to be shown
+   * @param maxScaleNumber the number of scales
+   * @param minY the per scale minimum visible Y values
+   * @param maxY the per scale maximum visible Y values
+   * @param yPixelsPerUnit the per scale Y axis pixels per unit
+   * @param or the orientation
+   * @param angle the orientation angle
+   */
+  private void drawStaticLayer(Canvas canvas, Paint paint, String[] titles, int x, int y,
+      int width, int height, int left, int top, int right, int bottom, int legendSize,
+      boolean showLabels, int maxScaleNumber, double[] minY, double[] maxY,
+      double[] yPixelsPerUnit, Orientation or, int angle) {
+    boolean showGridX = mRenderer.isShowGridX();
+    boolean showTickMarks = mRenderer.isShowTickMarks();
+    boolean showCustomTextGridY = mRenderer.isShowCustomTextGridY();
+    if (showLabels || showGridX) {
+      Map<Integer, List<Double>> allYLabels = getYLabels(minY, maxY, maxScaleNumber);
       drawYLabels(allYLabels, canvas, paint, maxScaleNumber, left, right, bottom, yPixelsPerUnit,
           minY);
 
@@ -470,20 +924,77 @@ public abstract class XYChart extends AbstractChart {
         canvas.drawLine(right, top, right, bottom, paint);
       }
     }
-    if (rotate) {
-      transform(canvas, angle, true);
+  }
+
+  /**
+   * Checks if the cached static layer was drawn with the same settings, and
+   * remembers the settings for the next check otherwise.
+   * 
+   * @return if the cached static layer can be reused
+   */
+  private boolean isStaticLayerValid(String[] titles, int x, int y, int width, int height,
+      int left, int top, int right, int bottom, int legendSize, boolean showLabels,
+      int maxScaleNumber, double[] minY, double[] maxY) {
+    int keyLength = 11 + 2 * maxScaleNumber;
+    if (mLayerKeyScratch == null || mLayerKeyScratch.length != keyLength) {
+      mLayerKeyScratch = new double[keyLength];
     }
+    double[] key = mLayerKeyScratch;
+    key[0] = x;
+    key[1] = y;
+    key[2] = width;
+    key[3] = height;
+    key[4] = left;
+    key[5] = top;
+    key[6] = right;
+    key[7] = bottom;
+    key[8] = legendSize;
+    key[9] = showLabels ? 1 : 0;
+    key[10] = maxScaleNumber;
+    System.arraycopy(minY, 0, key, 11, maxScaleNumber);
+    System.arraycopy(maxY, 0, key, 11 + maxScaleNumber, maxScaleNumber);
+    int textLength = 2 + maxScaleNumber + titles.length;
+    if (mLayerTextScratch == null || mLayerTextScratch.length != textLength) {
+      mLayerTextScratch = new String[textLength];
+    }
+    String[] text = mLayerTextScratch;
+    text[0] = mRenderer.getChartTitle();
+    text[1] = mRenderer.getXTitle();
+    for (int i = 0; i < maxScaleNumber; i++) {
+      text[2 + i] = mRenderer.getYTitle(i);
+    }
+    System.arraycopy(titles, 0, text, 2 + maxScaleNumber, titles.length);
+    if (mLayerKey != null && Arrays.equals(key, mLayerKey) && Arrays.equals(text, mLayerText)) {
+      return true;
+    }
+    // keep the new settings, the old arrays become the scratch arrays
+    mLayerKeyScratch = mLayerKey;
+    mLayerTextScratch = mLayerText;
+    mLayerKey = key;
+    mLayerText = text;
+    return false;
+  }
+
+  /**
+   * Discards the cached static layer, so it gets drawn again with the next
+   * frame. Needed after changing renderer settings other than the axis ranges
+   * and the titles while the layer cache is enabled.
+   */
+  public void invalidateStaticLayer() {
+    mLayerKey = null;
+    mLegendTitles = null;
   }
 
   protected List<Double> getXLabels(double min, double max, int count) {
-    return MathHelper.getLabels(min, max, count);
+    return getLabelCache().getLabels(min, max, count, mRenderer.getLabelFormat());
   }
 
   protected Map<Integer, List<Double>> getYLabels(double[] minY, double[] maxY, int maxScaleNumber) {
     Map<Integer, List<Double>> allYLabels = new HashMap<Integer, List<Double>>();
     for (int i = 0; i < maxScaleNumber; i++) {
       allYLabels.put(i,
-          getValidLabels(MathHelper.getLabels(minY[i], maxY[i], mRenderer.getYLabels())));
+          getLabelCache().getLabels(minY[i], maxY[i], mRenderer.getYLabels(),
+              mRenderer.getLabelFormat()));
     }
     return allYLabels;
   }
@@ -496,7 +1007,39 @@ public abstract class XYChart extends AbstractChart {
     mScreenR = screenR;
   }
 
+  /**
+   * Returns the labels cache, shared by both axes.
+   * 
+   * @return the labels cache
+   */
+  private LabelCache getLabelCache() {
+    if (mLabelCache == null) {
+      mLabelCache = new LabelCache(8);
+    }
+    return mLabelCache;
+  }
+
+  /**
+   * Returns the text of an axis label.
+   * 
+   * @param labels the labels
+   * @param index the index of the label
+   * @param label the label value
+   * @return the label text
+   */
+  private String getLabelText(List<Double> labels, int index, double label) {
+    if (labels instanceof LabelCache.Labels) {
+      // formatted with the label format when the labels were computed
+      return ((LabelCache.Labels) labels).getText(index);
+    }
+    return getLabel(mRenderer.getLabelFormat(), label);
+  }
+
   private List<Double> getValidLabels(List<Double> labels) {
+    if (labels instanceof LabelCache.Labels) {
+      // the cached labels never include NaN
+      return labels;
+    }
     List<Double> result = new ArrayList<Double>(labels);
     for (Double label : labels) {
       if (label.isNaN()) {
@@ -506,6 +1049,93 @@ public abstract class XYChart extends AbstractChart {
     return result;
   }
 
+  /**
+   * Copies points into a reusable list, for the chart types that still render
+   * from boxed values.
+   * 
+   * @param points the points buffer
+   * @param length the number of used values in the points buffer
+   * @return the points list, only valid until the next call
+   */
+  protected List<Float> toPointsList(float[] points, int length) {
+    if (mPointsList == null) {
+      mPointsList = new ArrayList<Float>(length);
+    }
+    mPointsList.clear();
+    for (int i = 0; i < length; i++) {
+      mPointsList.add(points[i]);
+    }
+    return mPointsList;
+  }
+
+  /**
+   * Draws the series.
+   * 
+   * @param series the series
+   * @param canvas the canvas
+   * @param paint the paint object
+   * @param points the points to be rendered
+   * @param length the number of used values in the points array
+   * @param seriesRenderer the series renderer
+   * @param yAxisValue the y axis value in pixels
+   * @param seriesIndex the series index
+   * @param or the orientation
+   * @param startIndex the start index of the rendering points
+   */
+  protected void drawSeries(XYSeries series, Canvas canvas, Paint paint, float[] points,
+      int length, XYSeriesRenderer seriesRenderer, float yAxisValue, int seriesIndex,
+      Orientation or, int startIndex) {
+    BasicStroke stroke = seriesRenderer.getStroke();
+    Cap cap = paint.getStrokeCap();
+    Join join = paint.getStrokeJoin();
+    float miter = paint.getStrokeMiter();
+    PathEffect pathEffect = paint.getPathEffect();
+    Style style = paint.getStyle();
+    if (stroke != null) {
+      PathEffect effect = null;
+      if (stroke.getIntervals() != null) {
+        effect = new DashPathEffect(stroke.getIntervals(), stroke.getPhase());
+      }
+      setStroke(stroke.getCap(), stroke.getJoin(), stroke.getMiter(), Style.FILL_AND_STROKE,
+          effect, paint);
+    }
+    float[] drawPoints = points;
+    int drawLength = length;
+    Decimation decimation = seriesRenderer.getDecimation();
+    if (decimation != Decimation.NONE && isDecimationSupported()) {
+      mDecimated = ensureCapacity(mDecimated, length);
+      drawPoints = mDecimated;
+      if (decimation == Decimation.M4) {
+        drawLength = Decimator.m4(points, length, drawPoints);
+      } else {
+        drawLength = Decimator.lttb(points, length, 2 * mScreenR.width(), drawPoints);
+      }
+    }
+    drawSeries(canvas, paint, drawPoints, drawLength, seriesRenderer, yAxisValue, seriesIndex,
+        startIndex);
+    if (isRenderPoints(seriesRenderer)) {
+      ScatterChart pointsChart = getPointsChart();
+      if (pointsChart != null) {
+        pointsChart.drawSeries(canvas, paint, drawPoints, drawLength, seriesRenderer, yAxisValue,
+            seriesIndex, startIndex);
+      }
+    }
+    paint.setTextSize(seriesRenderer.getChartValuesTextSize());
+    if (or == Orientation.HORIZONTAL) {
+      paint.setTextAlign(Align.CENTER);
+    } else {
+      paint.setTextAlign(Align.LEFT);
+    }
+    if (seriesRenderer.isDisplayChartValues()) {
+      paint.setTextAlign(seriesRenderer.getChartValuesTextAlign());
+      drawChartValuesText(canvas, series, seriesRenderer, paint, toPointsList(points, length),
+          seriesIndex, startIndex);
+    }
+    if (stroke != null) {
+      setStroke(cap, join, miter, style, pathEffect, paint);
+    }
+  }
+
   /**
    * Draws the series.
    * 
@@ -700,7 +1330,7 @@ public abstract class XYChart extends AbstractChart {
           canvas
               .drawLine(xLabel, bottom, xLabel, bottom + mRenderer.getLabelsTextSize() / 3, paint);
         }
-        drawText(canvas, getLabel(mRenderer.getLabelFormat(), label), xLabel,
+        drawText(canvas, getLabelText(xLabels, i, label), xLabel,
             bottom + mRenderer.getLabelsTextSize() * 4 / 3 + mRenderer.getXLabelsPadding(), paint,
             mRenderer.getXLabelsAngle());
       }
@@ -748,7 +1378,7 @@ public abstract class XYChart extends AbstractChart {
               if (showTickMarks) {
                 canvas.drawLine(left + getLabelLinePos(axisAlign), yLabel, left, yLabel, paint);
               }
-              drawText(canvas, getLabel(mRenderer.getLabelFormat(), label),
+              drawText(canvas, getLabelText(yLabels, j, label),
                   left - mRenderer.getYLabelsPadding(),
                   yLabel - mRenderer.getYLabelsVerticalPadding(), paint,
                   mRenderer.getYLabelsAngle());
@@ -756,7 +1386,7 @@ public abstract class XYChart extends AbstractChart {
               if (showTickMarks) {
                 canvas.drawLine(right, yLabel, right + getLabelLinePos(axisAlign), yLabel, paint);
               }
-              drawText(canvas, getLabel(mRenderer.getLabelFormat(), label),
+              drawText(canvas, getLabelText(yLabels, j, label),
                   right + mRenderer.getYLabelsPadding(),
                   yLabel - mRenderer.getYLabelsVerticalPadding(), paint,
                   mRenderer.getYLabelsAngle());
@@ -772,7 +1402,7 @@ public abstract class XYChart extends AbstractChart {
             if (showTickMarks) {
               canvas.drawLine(right - getLabelLinePos(axisAlign), yLabel, right, yLabel, paint);
             }
-            drawText(canvas, getLabel(mRenderer.getLabelFormat(), label),
+            drawText(canvas, getLabelText(yLabels, j, label),
                 right + 10 + mRenderer.getYLabelsPadding(),
                 yLabel - mRenderer.getYLabelsVerticalPadding(), paint, mRenderer.getYLabelsAngle());
           }
@@ -912,27 +1542,102 @@ public abstract class XYChart extends AbstractChart {
   }
 
   public SeriesSelection getSeriesAndPointForScreenCoordinate(final Point screenPoint) {
-    if (clickableAreas != null)
-      for (int seriesIndex = clickableAreas.size() - 1; seriesIndex >= 0; seriesIndex--) {
-        // series 0 is drawn first. Then series 1 is drawn on top, and series 2
-        // on top of that.
-        // we want to know what the user clicked on, so traverse them in the
-        // order they appear on the screen.
-        int pointIndex = 0;
-        if (clickableAreas.get(seriesIndex) != null) {
-          RectF rectangle;
-          for (ClickableArea area : clickableAreas.get(seriesIndex)) {
-            if (area != null) {
-              rectangle = area.getRect();
-              if (rectangle != null && rectangle.contains(screenPoint.getX(), screenPoint.getY())) {
-                return new SeriesSelection(seriesIndex, pointIndex, area.getX(), area.getY());
-              }
+    HitFrame frame = mHitFrame;
+    if (frame == null || !mRenderer.isClickEnabled()) {
+      return super.getSeriesAndPointForScreenCoordinate(screenPoint);
+    }
+    // clicks may come in while another thread draws the next frame
+    frame = frame.copy();
+    float screenX = screenPoint.getX();
+    float screenY = screenPoint.getY();
+    // series 0 is drawn first. Then series 1 is drawn on top, and series 2
+    // on top of that.
+    // we want to know what the user clicked on, so traverse them in the
+    // order they appear on the screen.
+    for (int seriesIndex = mDataset.getSeriesCount() - 1; seriesIndex >= 0; seriesIndex--) {
+      XYSeries series = mDataset.getSeriesAt(seriesIndex);
+      int scale = series.getScaleNumber();
+      if (scale >= frame.mMinX.length || frame.mXPixelsPerUnit[scale] == 0) {
+        continue;
+      }
+      double fromX = frame.mMinX[scale];
+      double toX = frame.mMaxX[scale];
+      float reach = getClickableAreaReach(seriesIndex);
+      if (reach >= 0) {
+        double x = fromX + (screenX - frame.mLeft) / frame.mXPixelsPerUnit[scale];
+        double delta = reach / frame.mXPixelsPerUnit[scale];
+        fromX = Math.max(fromX, x - delta);
+        toX = Math.min(toX, x + delta);
+        if (fromX > toX) {
+          continue;
+        }
+      }
+      XYSeriesSnapshot snapshot = series.snapshot(fromX, toX, false, new XYSeriesSnapshot());
+      SeriesSelection selection = getSeriesAndPointForScreenCoordinate(snapshot, frame,
+          seriesIndex, scale, screenX, screenY);
+      if (selection != null) {
+        return selection;
+      }
+    }
+    return super.getSeriesAndPointForScreenCoordinate(screenPoint);
+  }
+
+  /**
+   * Hit tests a click against the clickable areas of a range of series values.
+   * 
+   * @param snapshot the values close to the click
+   * @param frame the scales of the frame that was clicked
+   * @param seriesIndex the index of the series
+   * @param scale the scale number of the series
+   * @param screenX the screen x of the click
+   * @param screenY the screen y of the click
+   * @return the clicked value or null
+   */
+  private SeriesSelection getSeriesAndPointForScreenCoordinate(XYSeriesSnapshot snapshot,
+      HitFrame frame, int seriesIndex, int scale, float screenX, float screenY) {
+    int first = snapshot.getFirstIndex();
+    int count = snapshot.getCount();
+    double[] xs = snapshot.getXs();
+    double[] ys = snapshot.getYs();
+    double minX = frame.mMinX[scale];
+    double minY = frame.mMinY[scale];
+    double xPixelsPerUnit = frame.mXPixelsPerUnit[scale];
+    double yPixelsPerUnit = frame.mYPixelsPerUnit[scale];
+    float yAxisValue = Math.min(frame.mBottom,
+        (float) (frame.mBottom + yPixelsPerUnit * minY));
+    List<Float> points = new ArrayList<Float>();
+    List<Double> values = new ArrayList<Double>();
+    int startIndex = -1;
+    // the clickable areas are calculated per run of values without gaps, the
+    // same way the runs are drawn
+    for (int k = 0; k <= count; k++) {
+      boolean gap = k == count || (isNullValue(ys[k]) && !isRenderNullValues());
+      if (gap) {
+        if (!points.isEmpty()) {
+          ClickableArea[] areas = clickableAreasForPoints(points, values, yAxisValue,
+              seriesIndex, startIndex);
+          for (int i = 0; i < areas.length; i++) {
+            RectF rectangle = areas[i] == null ? null : areas[i].getRect();
+            if (rectangle != null && rectangle.contains(screenX, screenY)) {
+              return new SeriesSelection(seriesIndex, startIndex + i, areas[i].getX(),
+                  areas[i].getY());
             }
-            pointIndex++;
           }
+          points.clear();
+          values.clear();
         }
+        continue;
       }
-    return super.getSeriesAndPointForScreenCoordinate(screenPoint);
+      if (points.isEmpty()) {
+        startIndex = first + k;
+      }
+      double yValue = isNullValue(ys[k]) ? 0 : ys[k];
+      points.add((float) (frame.mLeft + xPixelsPerUnit * (xs[k] - minX)));
+      points.add((float) (frame.mBottom - yPixelsPerUnit * (yValue - minY)));
+      values.add(xs[k]);
+      values.add(ys[k]);
+    }
+    return null;
   }
 
   /**
@@ -949,6 +1654,26 @@ public abstract class XYChart extends AbstractChart {
   public abstract void drawSeries(Canvas canvas, Paint paint, List<Float> points,
       XYSeriesRenderer seriesRenderer, float yAxisValue, int seriesIndex, int startIndex);
 
+  /**
+   * The graphical representation of a series, drawn from a primitive points
+   * buffer. Chart types that don't override this render from a boxed copy of
+   * the points.
+   * 
+   * @param canvas the canvas to paint to
+   * @param paint the paint to be used for drawing
+   * @param points the array of points to be used for drawing the series
+   * @param length the number of used values in the points array
+   * @param seriesRenderer the series renderer
+   * @param yAxisValue the minimum value of the y axis
+   * @param seriesIndex the index of the series currently being drawn
+   * @param startIndex the start index of the rendering points
+   */
+  public void drawSeries(Canvas canvas, Paint paint, float[] points, int length,
+      XYSeriesRenderer seriesRenderer, float yAxisValue, int seriesIndex, int startIndex) {
+    drawSeries(canvas, paint, toPointsList(points, length), seriesRenderer, yAxisValue,
+        seriesIndex, startIndex);
+  }
+
   /**
    * Returns the clickable areas for all passed points
    * 
@@ -962,6 +1687,19 @@ public abstract class XYChart extends AbstractChart {
   protected abstract ClickableArea[] clickableAreasForPoints(List<Float> points,
       List<Double> values, float yAxisValue, int seriesIndex, int startIndex);
 
+  /**
+   * Returns how far the clickable area of a point may reach to either side of
+   * the point, so a click only needs to be tested against the points close to
+   * it.
+   * 
+   * @param seriesIndex the index of the series
+   * @return the reach in pixels, or a negative value if the clickable areas
+   *         depend on all the visible points
+   */
+  protected float getClickableAreaReach(int seriesIndex) {
+    return mRenderer.getSelectableBuffer();
+  }
+
   /**
    * Returns if the chart should display the null values.
    * 
@@ -980,6 +1718,53 @@ public abstract class XYChart extends AbstractChart {
     return false;
   }
 
+  /**
+   * Returns if the series points may be decimated before drawing them, which
+   * is only the case for charts that connect the points with a line.
+   * 
+   * @return if the points may be decimated
+   */
+  protected boolean isDecimationSupported() {
+    return false;
+  }
+
+  /**
+   * Returns if the chart draws a series only from the points it is handed,
+   * without looking up series values by index. Such charts draw from a series
+   * snapshot and don't keep the series locked meanwhile.
+   * 
+   * @return if the series may change while it is drawn
+   */
+  protected boolean isLockFreeDrawingSupported() {
+    return false;
+  }
+
+  /**
+   * Returns the object to lock while drawing a series. The series itself is
+   * only locked if the series values may get looked up by index, otherwise the
+   * chart is, which only the drawing thread locks.
+   * 
+   * @param series the series
+   * @param seriesRenderer the series renderer
+   * @return the lock
+   */
+  private Object getDrawingLock(XYSeries series, XYSeriesRenderer seriesRenderer) {
+    if (isLockFreeDrawingSupported() && !seriesRenderer.isDisplayChartValues()) {
+      return this;
+    }
+    return series;
+  }
+
+  /**
+   * Returns if the chart can be drawn as a strip chart, which is only the case
+   * for charts that draw each series as a line from point to point.
+   * 
+   * @return if the plot may be scrolled instead of redrawn
+   */
+  protected boolean isStripChartSupported() {
+    return false;
+  }
+
   /**
    * Returns the default axis minimum.
    * 
@@ -1005,4 +1790,73 @@ public abstract class XYChart extends AbstractChart {
    */
   public abstract String getChartType();
 
+  /**
+   * The scales a frame was drawn with, kept for hit testing clicks against the
+   * series values. Clicks may be hit tested on another thread than the one
+   * drawing, so the scales are recorded and copied while holding the lock.
+   */
+  private static class HitFrame {
+    /** The left edge of the plot area. */
+    private int mLeft;
+    /** The bottom edge of the plot area. */
+    private int mBottom;
+    /** The per scale minimum visible X values. */
+    private double[] mMinX = new double[0];
+    /** The per scale maximum visible X values. */
+    private double[] mMaxX = new double[0];
+    /** The per scale minimum visible Y values. */
+    private double[] mMinY = new double[0];
+    /** The per scale X pixels per unit. */
+    private double[] mXPixelsPerUnit = new double[0];
+    /** The per scale Y pixels per unit. */
+    private double[] mYPixelsPerUnit = new double[0];
+
+    /**
+     * Records the scales of a frame.
+     * 
+     * @param left the left edge of the plot area
+     * @param bottom the bottom edge of the plot area
+     * @param minX the per scale minimum visible X values
+     * @param maxX the per scale maximum visible X values
+     * @param minY the per scale minimum visible Y values
+     * @param xPixelsPerUnit the per scale X pixels per unit
+     * @param yPixelsPerUnit the per scale Y pixels per unit
+     */
+    synchronized void set(int left, int bottom, double[] minX, double[] maxX, double[] minY,
+        double[] xPixelsPerUnit, double[] yPixelsPerUnit) {
+      int length = minX.length;
+      if (mMinX.length != length) {
+        mMinX = new double[length];
+        mMaxX = new double[length];
+        mMinY = new double[length];
+        mXPixelsPerUnit = new double[length];
+        mYPixelsPerUnit = new double[length];
+      }
+      mLeft = left;
+      mBottom = bottom;
+      System.arraycopy(minX, 0, mMinX, 0, length);
+      System.arraycopy(maxX, 0, mMaxX, 0, length);
+      System.arraycopy(minY, 0, mMinY, 0, length);
+      System.arraycopy(xPixelsPerUnit, 0, mXPixelsPerUnit, 0, length);
+      System.arraycopy(yPixelsPerUnit, 0, mYPixelsPerUnit, 0, length);
+    }
+
+    /**
+     * Returns a copy of the recorded scales.
+     * 
+     * @return the copy
+     */
+    synchronized HitFrame copy() {
+      HitFrame copy = new HitFrame();
+      copy.mLeft = mLeft;
+      copy.mBottom = mBottom;
+      copy.mMinX = mMinX.clone();
+      copy.mMaxX = mMaxX.clone();
+      copy.mMinY = mMinY.clone();
+      copy.mXPixelsPerUnit = mXPixelsPerUnit.clone();
+      copy.mYPixelsPerUnit = mYPixelsPerUnit.clone();
+      return copy;
+    }
+  }
+
 }
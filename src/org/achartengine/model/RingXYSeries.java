@@ -0,0 +1,747 @@
+/**
+ * Copyright (C) 2009 - 2013 SC 4ViewSoft SRL
+ *  
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *  
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *  
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.achartengine.model;
+
+import java.util.Arrays;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+import org.achartengine.util.MathHelper;
+import org.achartengine.util.WindowExtrema;
+
+/**
+ * An XY series for append only data with ascending X values, like sensor
+ * readouts. The values are kept in chunks of primitive arrays, so adding a
+ * value neither boxes it nor allocates a map entry. If a maximum capacity is
+ * set, adding a value to a full series evicts the oldest one. Optionally, the
+ * series maintains a min / max / mean summary pyramid of its values, so zoomed
+ * out charts don't need to visit every value.
+ * <p>
+ * A value is never changed once it was written, and the values are published
+ * through volatile sequence numbers, so the series can be read without
+ * locking while one thread modifies it. Reading never blocks the writer, and
+ * the writer never waits for a chart being drawn. The summary levels are still
+ * guarded by the series lock.
+ */
+public class RingXYSeries extends XYSeries {
+  /** The binary logarithm of the number of values in a storage chunk. */
+  private static final int CHUNK_SHIFT = 10;
+  /** The number of values in a storage chunk. */
+  private static final int CHUNK_SIZE = 1 << CHUNK_SHIFT;
+  /** The binary logarithm of the bucket size of the finest summary level. */
+  private static final int MIN_SUMMARY_SHIFT = 3;
+  /** The binary logarithm of the bucket size of the coarsest summary level. */
+  private static final int MAX_SUMMARY_SHIFT = 20;
+  /** The storage chunks, replaced whenever a chunk is added or dropped. */
+  private volatile Chunks mChunks = new Chunks(0, 0);
+  /** The sequence number of the oldest value. */
+  private volatile long mStart;
+  /**
+   * The sequence number after the newest value. Writing it publishes the
+   * values before it, so readers read it first, then the chunks, then the
+   * start.
+   */
+  private volatile long mEnd;
+  /** The maximum number of values to keep, 0 for no limit. */
+  private int mMaxCapacity;
+  /** The Y range, kept up to date while the oldest values are evicted. */
+  private final WindowExtrema mYRange = new WindowExtrema();
+  /** The minimum Y value, published to the readers. */
+  private volatile double mMinY = MathHelper.NULL_VALUE;
+  /** The maximum Y value, published to the readers. */
+  private volatile double mMaxY = -MathHelper.NULL_VALUE;
+  /** The summary levels, from fine to coarse, or null if disabled. */
+  private SummaryLevel[] mSummary;
+  /** The summary position of the oldest value. */
+  private long mSequence;
+  /** The last X value passed to add(), before stepping past a duplicate. */
+  private double mLastAddedX;
+
+  /**
+   * Builds a new ring XY series without a capacity limit.
+   *
+   * @param title the series title.
+   */
+  public RingXYSeries(String title) {
+    this(title, 0, 0);
+  }
+
+  /**
+   * Builds a new ring XY series.
+   *
+   * @param title the series title.
+   * @param scaleNumber the series scale number
+   * @param maxCapacity the maximum number of values to keep, 0 for no limit
+   */
+  public RingXYSeries(String title, int scaleNumber, int maxCapacity) {
+    super(title, scaleNumber);
+    setMaxCapacity(maxCapacity);
+  }
+
+  /**
+   * Returns the maximum number of values the series keeps.
+   *
+   * @return the maximum capacity, 0 for no limit
+   */
+  public int getMaxCapacity() {
+    return mMaxCapacity;
+  }
+
+  /**
+   * Sets the maximum number of values the series keeps. If the series
+   * currently holds more values, the oldest ones are evicted.
+   *
+   * @param maxCapacity the maximum capacity, 0 for no limit
+   */
+  public synchronized void setMaxCapacity(int maxCapacity) {
+    if (maxCapacity < 0) {
+      throw new IllegalArgumentException("Negative capacity " + maxCapacity);
+    }
+    mMaxCapacity = maxCapacity;
+    while (mMaxCapacity > 0 && mEnd - mStart > mMaxCapacity) {
+      remove(0);
+    }
+  }
+
+  /**
+   * Returns if the series maintains a summary pyramid of its values.
+   *
+   * @return if the summary is enabled
+   */
+  public synchronized boolean isSummaryEnabled() {
+    return mSummary != null;
+  }
+
+  /**
+   * Sets if the series maintains a summary pyramid of its values. Every level
+   * of the pyramid groups twice as many values as the previous one, which
+   * costs a constant amount of work per added value.
+   *
+   * @param enabled if the summary is enabled
+   */
+  public synchronized void setSummaryEnabled(boolean enabled) {
+    if (enabled == (mSummary != null)) {
+      return;
+    }
+    if (enabled) {
+      mSummary = new SummaryLevel[MAX_SUMMARY_SHIFT - MIN_SUMMARY_SHIFT + 1];
+      for (int i = 0; i < mSummary.length; i++) {
+        mSummary[i] = new SummaryLevel(this, MIN_SUMMARY_SHIFT + i);
+      }
+      rebuildSummary();
+    } else {
+      mSummary = null;
+    }
+  }
+
+  /**
+   * Returns the coarsest summary level whose buckets, on average, don't cover
+   * more than the given X distance, or the series itself if there is none.
+   *
+   * @param pixelWidth the X distance covered by one pixel
+   * @return the series to be displayed
+   */
+  @Override
+  public synchronized XYSeries getSummary(double pixelWidth) {
+    long size = mEnd - mStart;
+    if (mSummary == null || size < 2) {
+      return this;
+    }
+    double spacing = (getMaxX() - getMinX()) / (size - 1);
+    XYSeries result = this;
+    for (int i = 0; i < mSummary.length && spacing > 0; i++) {
+      if (spacing * mSummary[i].getBucketSize() > pixelWidth) {
+        break;
+      }
+      result = mSummary[i];
+    }
+    return result;
+  }
+
+  /**
+   * Adds a new value to the end of the series. The X value must not be lower
+   * than the last one in the series.
+   *
+   * @param x the value for the X axis
+   * @param y the value for the Y axis
+   */
+  @Override
+  public synchronized void add(double x, double y) {
+    long end = mEnd;
+    if (end > mStart) {
+      if (x < mLastAddedX) {
+        throw new IllegalArgumentException("X value " + x + " is lower than the last one "
+            + mLastAddedX);
+      }
+      mLastAddedX = x;
+      double lastX = mChunks.getX(end - 1);
+      if (x <= lastX) {
+        // keep values sharing the same x, just like the map based series does,
+        // but with the smallest step that still changes x at any magnitude
+        x = Math.nextUp(lastX);
+      }
+    } else {
+      mLastAddedX = x;
+    }
+    if (mMaxCapacity > 0 && end - mStart == mMaxCapacity) {
+      remove(0);
+    }
+    Chunks chunks = mChunks;
+    if (end >= chunks.getLimit()) {
+      chunks = chunks.append();
+      mChunks = chunks;
+    }
+    chunks.set(end, x, y);
+    if (mSummary != null) {
+      putSummary(mSequence + end - mStart, x, y);
+    }
+    mYRange.add(y);
+    publishYRange();
+    mEnd = end + 1;
+  }
+
+  /**
+   * Adds a new value to the series. Only appending is supported, so the index
+   * must be the current item count.
+   *
+   * @param index the index to be added the data to
+   * @param x the value for the X axis
+   * @param y the value for the Y axis
+   */
+  @Override
+  public synchronized void add(int index, double x, double y) {
+    if (index != mEnd - mStart) {
+      throw new UnsupportedOperationException("Values can only be appended");
+    }
+    add(x, y);
+  }
+
+  /**
+   * Removes an existing value from the series. Removing the oldest value is a
+   * constant time operation.
+   *
+   * @param index the index in the series of the value to remove
+   */
+  @Override
+  public synchronized void remove(int index) {
+    long start = mStart;
+    long end = mEnd;
+    checkIndex(index, end - start);
+    if (index == 0) {
+      mYRange.removeFirst();
+      mSequence++;
+      if (mSummary != null) {
+        for (SummaryLevel level : mSummary) {
+          level.evict(mSequence);
+        }
+      }
+      mStart = start + 1;
+      Chunks chunks = mChunks;
+      if (start + 1 - chunks.mBase >= CHUNK_SIZE) {
+        // readers that got the new start don't need the chunk anymore
+        mChunks = chunks.drop();
+      }
+    } else {
+      // values are never changed in place, so the remaining ones are copied
+      // to new chunks that follow the current values
+      Chunks chunks = mChunks;
+      long base = end & -CHUNK_SIZE;
+      int count = (int) ((end - start - 1 + end - base + CHUNK_SIZE - 1) >> CHUNK_SHIFT);
+      Chunks copy = new Chunks(base, count);
+      long sequence = end;
+      for (long i = start; i < end; i++) {
+        if (i != start + index) {
+          copy.set(sequence++, chunks.getX(i), chunks.getY(i));
+        }
+      }
+      mStart = end;
+      mChunks = copy;
+      mEnd = sequence;
+      // the window positions shift
+      initYRange();
+      if (mSummary != null) {
+        rebuildSummary();
+      }
+    }
+    publishYRange();
+  }
+
+  /**
+   * Removes all the existing values from the series.
+   */
+  @Override
+  public synchronized void clear() {
+    super.clear();
+    long end = mEnd;
+    mStart = end;
+    mChunks = new Chunks(end & -CHUNK_SIZE, 0);
+    initYRange();
+    publishYRange();
+    if (mSummary != null) {
+      rebuildSummary();
+    }
+  }
+
+  /**
+   * Returns the X axis value at the specified index.
+   *
+   * @param index the index
+   * @return the X value
+   */
+  @Override
+  public double getX(int index) {
+    long end = mEnd;
+    Chunks chunks = mChunks;
+    long start = Math.min(mStart, end);
+    checkIndex(index, end - start);
+    return chunks.getX(start + index);
+  }
+
+  /**
+   * Returns the Y axis value at the specified index.
+   *
+   * @param index the index
+   * @return the Y value
+   */
+  @Override
+  public double getY(int index) {
+    long end = mEnd;
+    Chunks chunks = mChunks;
+    long start = Math.min(mStart, end);
+    checkIndex(index, end - start);
+    return chunks.getY(start + index);
+  }
+
+  /**
+   * Returns submap of x and y values according to the given start and end
+   *
+   * @param start start x value
+   * @param stop stop x value
+   * @param beforeAfterPoints if the points before and after the first and last
+   *          visible ones must be displayed
+   * @return a submap of x and y values
+   */
+  @Override
+  public SortedMap<Double, Double> getRange(double start, double stop, boolean beforeAfterPoints) {
+    long end = mEnd;
+    Chunks chunks = mChunks;
+    long first = Math.min(mStart, end);
+    long from = lowerBound(chunks, first, end, start);
+    long to = lowerBound(chunks, first, end, stop);
+    if (beforeAfterPoints) {
+      from = Math.max(first, from - 1);
+      to = Math.min(end, to + 1);
+    }
+    SortedMap<Double, Double> range = new TreeMap<Double, Double>();
+    for (long i = from; i < to; i++) {
+      range.put(chunks.getX(i), chunks.getY(i));
+    }
+    return range;
+  }
+
+  /**
+   * Returns the index range of the values whose X is within the given range.
+   *
+   * @param fromX the start X value, inclusive
+   * @param toX the stop X value, exclusive
+   * @param includeNeighbours if the values before and after the range must be
+   *          included
+   * @param range receives the first index and the index after the last one,
+   *          may be null
+   * @return the index range
+   */
+  @Override
+  public int[] indexRange(double fromX, double toX, boolean includeNeighbours, int[] range) {
+    long end = mEnd;
+    Chunks chunks = mChunks;
+    long start = Math.min(mStart, end);
+    long from = lowerBound(chunks, start, end, fromX);
+    long to = lowerBound(chunks, start, end, toX);
+    if (includeNeighbours) {
+      from = Math.max(start, from - 1);
+      to = Math.min(end, to + 1);
+    }
+    if (range == null) {
+      range = new int[2];
+    }
+    range[0] = (int) (from - start);
+    range[1] = (int) (Math.max(from, to) - start);
+    return range;
+  }
+
+  /**
+   * Copies the X values of an index range.
+   *
+   * @param from the first index
+   * @param to the index after the last one
+   * @param dst receives the values, starting at its first element
+   */
+  @Override
+  public void copyX(int from, int to, double[] dst) {
+    long end = mEnd;
+    Chunks chunks = mChunks;
+    long start = Math.min(mStart, end);
+    checkRange(from, to, end - start);
+    chunks.copy(chunks.mXs, start + from, start + to, dst);
+  }
+
+  /**
+   * Copies the Y values of an index range.
+   *
+   * @param from the first index
+   * @param to the index after the last one
+   * @param dst receives the values, starting at its first element
+   */
+  @Override
+  public void copyY(int from, int to, double[] dst) {
+    long end = mEnd;
+    Chunks chunks = mChunks;
+    long start = Math.min(mStart, end);
+    checkRange(from, to, end - start);
+    chunks.copy(chunks.mYs, start + from, start + to, dst);
+  }
+
+  /**
+   * Copies the values whose X is within the given range as one consistent
+   * snapshot, without locking.
+   *
+   * @param fromX the start X value, inclusive
+   * @param toX the stop X value, exclusive
+   * @param includeNeighbours if the values before and after the range must be
+   *          included
+   * @param snapshot receives the values, may be null
+   * @return the snapshot
+   */
+  @Override
+  public XYSeriesSnapshot snapshot(double fromX, double toX, boolean includeNeighbours,
+      XYSeriesSnapshot snapshot) {
+    if (snapshot == null) {
+      snapshot = new XYSeriesSnapshot();
+    }
+    long end = mEnd;
+    Chunks chunks = mChunks;
+    long start = Math.min(mStart, end);
+    long from = lowerBound(chunks, start, end, fromX);
+    long to = lowerBound(chunks, start, end, toX);
+    if (includeNeighbours) {
+      from = Math.max(start, from - 1);
+      to = Math.min(end, to + 1);
+    }
+    to = Math.max(from, to);
+    snapshot.reset((int) (from - start), (int) (to - from));
+    chunks.copy(chunks.mXs, from, to, snapshot.getXs());
+    chunks.copy(chunks.mYs, from, to, snapshot.getYs());
+    return snapshot;
+  }
+
+  /**
+   * Returns the index of the given X value, following the contract of
+   * <code>Collections.binarySearch</code>.
+   *
+   * @param key the X value
+   * @return the index of the value or <code>(-(insertion point) - 1)</code>
+   */
+  @Override
+  public int getIndexForKey(double key) {
+    long end = mEnd;
+    Chunks chunks = mChunks;
+    long start = Math.min(mStart, end);
+    long sequence = lowerBound(chunks, start, end, key);
+    int index = (int) (sequence - start);
+    if (sequence < end && chunks.getX(sequence) == key) {
+      return index;
+    }
+    return -index - 1;
+  }
+
+  /**
+   * Returns the series item count.
+   *
+   * @return the series item count
+   */
+  @Override
+  public int getItemCount() {
+    long end = mEnd;
+    return (int) (end - Math.min(mStart, end));
+  }
+
+  /**
+   * Returns the minimum value on the X axis.
+   *
+   * @return the X axis minimum value
+   */
+  @Override
+  public double getMinX() {
+    long end = mEnd;
+    Chunks chunks = mChunks;
+    long start = mStart;
+    return start >= end ? MathHelper.NULL_VALUE : chunks.getX(start);
+  }
+
+  /**
+   * Returns the minimum value on the Y axis.
+   *
+   * @return the Y axis minimum value
+   */
+  @Override
+  public double getMinY() {
+    return mMinY;
+  }
+
+  /**
+   * Returns the maximum value on the X axis.
+   *
+   * @return the X axis maximum value
+   */
+  @Override
+  public double getMaxX() {
+    long end = mEnd;
+    Chunks chunks = mChunks;
+    long start = mStart;
+    return start >= end ? -MathHelper.NULL_VALUE : chunks.getX(end - 1);
+  }
+
+  /**
+   * Returns the maximum value on the Y axis.
+   *
+   * @return the Y axis maximum value
+   */
+  @Override
+  public double getMaxY() {
+    return mMaxY;
+  }
+
+  /**
+   * Returns the sequence number of the first value whose X is not lower than
+   * the given one, or the end if there is no such value.
+   *
+   * @param chunks the storage chunks
+   * @param start the sequence number of the oldest value
+   * @param end the sequence number after the newest value
+   * @param x the X value
+   * @return the lower bound sequence number
+   */
+  private static long lowerBound(Chunks chunks, long start, long end, double x) {
+    long low = start;
+    long high = end;
+    while (low < high) {
+      long mid = (low + high) >>> 1;
+      if (chunks.getX(mid) < x) {
+        low = mid + 1;
+      } else {
+        high = mid;
+      }
+    }
+    return low;
+  }
+
+  /**
+   * Recalculates the Y range by scanning all values.
+   */
+  private void initYRange() {
+    mYRange.clear();
+    Chunks chunks = mChunks;
+    for (long i = mStart; i < mEnd; i++) {
+      mYRange.add(chunks.getY(i));
+    }
+  }
+
+  /**
+   * Publishes the Y range to the readers.
+   */
+  private void publishYRange() {
+    mMinY = mYRange.getMin();
+    mMaxY = mYRange.getMax();
+  }
+
+  /**
+   * Adds a value to all the summary levels.
+   *
+   * @param sequence the summary position of the value
+   * @param x the value for the X axis
+   * @param y the value for the Y axis
+   */
+  private void putSummary(long sequence, double x, double y) {
+    for (SummaryLevel level : mSummary) {
+      level.put(sequence, x, y);
+    }
+  }
+
+  /**
+   * Rebuilds the summary levels from the current values.
+   */
+  private void rebuildSummary() {
+    mSequence = 0;
+    for (SummaryLevel level : mSummary) {
+      level.reset();
+    }
+    Chunks chunks = mChunks;
+    long start = mStart;
+    for (long i = start; i < mEnd; i++) {
+      putSummary(i - start, chunks.getX(i), chunks.getY(i));
+    }
+  }
+
+  /**
+   * Makes sure the given index refers to an existing value.
+   *
+   * @param index the series index
+   * @param size the series size
+   */
+  private static void checkIndex(int index, long size) {
+    if (index < 0 || index >= size) {
+      throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+    }
+  }
+
+  /**
+   * Makes sure the given index range refers to existing values.
+   *
+   * @param from the first index
+   * @param to the index after the last one
+   * @param size the series size
+   */
+  private static void checkRange(int from, int to, long size) {
+    if (from < 0 || to > size || from > to) {
+      throw new IndexOutOfBoundsException("Range: " + from + " - " + to + ", Size: " + size);
+    }
+  }
+
+  /**
+   * A table of storage chunks, addressed by sequence number. The table itself
+   * is never changed, adding or dropping a chunk creates a new one.
+   */
+  private static class Chunks {
+    /** The sequence number of the first slot of the first chunk. */
+    final long mBase;
+    /** The X value chunks. */
+    final double[][] mXs;
+    /** The Y value chunks. */
+    final double[][] mYs;
+
+    /**
+     * Builds a new table of empty chunks.
+     *
+     * @param base the sequence number of the first slot, a multiple of the
+     *          chunk size
+     * @param count the number of chunks
+     */
+    Chunks(long base, int count) {
+      this(base, new double[count][CHUNK_SIZE], new double[count][CHUNK_SIZE]);
+    }
+
+    /**
+     * Builds a new table of chunks.
+     *
+     * @param base the sequence number of the first slot
+     * @param xs the X value chunks
+     * @param ys the Y value chunks
+     */
+    private Chunks(long base, double[][] xs, double[][] ys) {
+      mBase = base;
+      mXs = xs;
+      mYs = ys;
+    }
+
+    /**
+     * Returns the sequence number after the last slot.
+     *
+     * @return the limit
+     */
+    long getLimit() {
+      return mBase + ((long) mXs.length << CHUNK_SHIFT);
+    }
+
+    /**
+     * Returns a copy of the table with an empty chunk appended.
+     *
+     * @return the new table
+     */
+    Chunks append() {
+      double[][] xs = Arrays.copyOf(mXs, mXs.length + 1);
+      double[][] ys = Arrays.copyOf(mYs, mYs.length + 1);
+      xs[mXs.length] = new double[CHUNK_SIZE];
+      ys[mYs.length] = new double[CHUNK_SIZE];
+      return new Chunks(mBase, xs, ys);
+    }
+
+    /**
+     * Returns a copy of the table without its first chunk.
+     *
+     * @return the new table
+     */
+    Chunks drop() {
+      return new Chunks(mBase + CHUNK_SIZE, Arrays.copyOfRange(mXs, 1, mXs.length),
+          Arrays.copyOfRange(mYs, 1, mYs.length));
+    }
+
+    /**
+     * Writes a value to its slot.
+     *
+     * @param sequence the sequence number of the value
+     * @param x the value for the X axis
+     * @param y the value for the Y axis
+     */
+    void set(long sequence, double x, double y) {
+      int offset = (int) (sequence - mBase);
+      mXs[offset >> CHUNK_SHIFT][offset & (CHUNK_SIZE - 1)] = x;
+      mYs[offset >> CHUNK_SHIFT][offset & (CHUNK_SIZE - 1)] = y;
+    }
+
+    /**
+     * Returns the X value in a slot.
+     *
+     * @param sequence the sequence number of the value
+     * @return the X value
+     */
+    double getX(long sequence) {
+      int offset = (int) (sequence - mBase);
+      return mXs[offset >> CHUNK_SHIFT][offset & (CHUNK_SIZE - 1)];
+    }
+
+    /**
+     * Returns the Y value in a slot.
+     *
+     * @param sequence the sequence number of the value
+     * @return the Y value
+     */
+    double getY(long sequence) {
+      int offset = (int) (sequence - mBase);
+      return mYs[offset >> CHUNK_SHIFT][offset & (CHUNK_SIZE - 1)];
+    }
+
+    /**
+     * Copies a range of slots, one chunk at a time.
+     *
+     * @param chunks the X or Y value chunks of this table
+     * @param from the sequence number of the first value
+     * @param to the sequence number after the last value
+     * @param dst receives the values, starting at its first element
+     */
+    void copy(double[][] chunks, long from, long to, double[] dst) {
+      int offset = (int) (from - mBase);
+      int end = (int) (to - mBase);
+      int position = 0;
+      while (offset < end) {
+        int slot = offset & (CHUNK_SIZE - 1);
+        int count = Math.min(CHUNK_SIZE - slot, end - offset);
+        System.arraycopy(chunks[offset >> CHUNK_SHIFT], slot, dst, position, count);
+        position += count;
+        offset += count;
+      }
+    }
+  }
+}
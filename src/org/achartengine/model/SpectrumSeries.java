@@ -0,0 +1,181 @@
+/**
+ * Copyright (C) 2009 - 2013 SC 4ViewSoft SRL
+ *  
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *  
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *  
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.achartengine.model;
+
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+import org.achartengine.util.MathHelper;
+
+/**
+ * A series holding an amplitude spectrum, such as the one computed by
+ * <code>FFT</code>. X values are the frequencies of the bins, which are evenly
+ * spaced from 0, Y values are their amplitudes. The spectrum is only ever
+ * replaced as a whole, which may happen on any thread and doesn't allocate
+ * once the series has grown to the spectrum size. Single values can't be added
+ * or removed, those calls leave the series unchanged.
+ */
+public class SpectrumSeries extends XYSeries {
+  /** The amplitudes of the bins. */
+  private double[] mAmplitudes = new double[0];
+  /** The number of bins. */
+  private int mCount;
+  /** The frequency distance between two bins. */
+  private double mBinWidth;
+  /** The minimum amplitude. */
+  private double mMinAmplitude = MathHelper.NULL_VALUE;
+  /** The maximum amplitude. */
+  private double mMaxAmplitude = -MathHelper.NULL_VALUE;
+
+  /**
+   * Builds a new, empty spectrum series.
+   * 
+   * @param title the series title
+   */
+  public SpectrumSeries(String title) {
+    super(title);
+  }
+
+  /**
+   * Replaces the spectrum.
+   * 
+   * @param amplitudes the amplitudes of the bins
+   * @param count the number of bins
+   * @param binWidth the frequency distance between two bins
+   */
+  public synchronized void setSpectrum(double[] amplitudes, int count, double binWidth) {
+    if (mAmplitudes.length < count) {
+      mAmplitudes = new double[count];
+    }
+    System.arraycopy(amplitudes, 0, mAmplitudes, 0, count);
+    mCount = count;
+    mBinWidth = binWidth;
+    mMinAmplitude = MathHelper.NULL_VALUE;
+    mMaxAmplitude = -MathHelper.NULL_VALUE;
+    for (int i = 0; i < count; i++) {
+      mMinAmplitude = Math.min(mMinAmplitude, amplitudes[i]);
+      mMaxAmplitude = Math.max(mMaxAmplitude, amplitudes[i]);
+    }
+  }
+
+  /**
+   * Returns the frequency distance between two bins.
+   * 
+   * @return the bin width
+   */
+  public synchronized double getBinWidth() {
+    return mBinWidth;
+  }
+
+  /**
+   * Does nothing, the bin frequencies are fixed by the bin width. Use
+   * setSpectrum() instead.
+   * 
+   * @param x the value for the X axis
+   * @param y the value for the Y axis
+   */
+  @Override
+  public void add(double x, double y) {
+  }
+
+  /**
+   * Does nothing, the bin frequencies are fixed by the bin width. Use
+   * setSpectrum() instead.
+   * 
+   * @param index the index to be added the data to
+   * @param x the value for the X axis
+   * @param y the value for the Y axis
+   */
+  @Override
+  public void add(int index, double x, double y) {
+  }
+
+  /**
+   * Does nothing, a spectrum has no gaps. Use setSpectrum() or clear()
+   * instead.
+   * 
+   * @param index the index in the series of the value to remove
+   */
+  @Override
+  public void remove(int index) {
+  }
+
+  /**
+   * Removes the spectrum.
+   */
+  @Override
+  public synchronized void clear() {
+    mCount = 0;
+    mMinAmplitude = MathHelper.NULL_VALUE;
+    mMaxAmplitude = -MathHelper.NULL_VALUE;
+  }
+
+  @Override
+  public synchronized double getX(int index) {
+    return index * mBinWidth;
+  }
+
+  @Override
+  public synchronized double getY(int index) {
+    return mAmplitudes[index];
+  }
+
+  @Override
+  public synchronized int getItemCount() {
+    return mCount;
+  }
+
+  @Override
+  public synchronized SortedMap<Double, Double> getRange(double start, double stop,
+      boolean beforeAfterPoints) {
+    int[] range = indexRange(start, stop, beforeAfterPoints, null);
+    SortedMap<Double, Double> values = new TreeMap<Double, Double>();
+    for (int i = range[0]; i < range[1]; i++) {
+      values.put(getX(i), getY(i));
+    }
+    return values;
+  }
+
+  @Override
+  public synchronized int getIndexForKey(double key) {
+    int index = mBinWidth == 0 ? 0 : (int) Math.ceil(key / mBinWidth);
+    index = Math.max(0, Math.min(mCount, index));
+    if (index < mCount && getX(index) == key) {
+      return index;
+    }
+    return -index - 1;
+  }
+
+  @Override
+  public synchronized double getMinX() {
+    return mCount == 0 ? MathHelper.NULL_VALUE : 0;
+  }
+
+  @Override
+  public synchronized double getMaxX() {
+    return mCount == 0 ? -MathHelper.NULL_VALUE : (mCount - 1) * mBinWidth;
+  }
+
+  @Override
+  public synchronized double getMinY() {
+    return mMinAmplitude;
+  }
+
+  @Override
+  public synchronized double getMaxY() {
+    return mMaxAmplitude;
+  }
+}
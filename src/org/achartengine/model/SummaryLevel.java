@@ -0,0 +1,510 @@
+/**
+ * Copyright (C) 2009 - 2013 SC 4ViewSoft SRL
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.achartengine.model;
+
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+import org.achartengine.util.MathHelper;
+
+/**
+ * One level of a series summary pyramid. The source values are grouped in
+ * buckets of a fixed power of two count, based on their position since the
+ * summary was built, and every bucket keeps its lowest and highest value along
+ * with the values mean. The level is a read only series that exposes the
+ * lowest and highest value of every bucket, in X order, so it draws the same
+ * envelope as the source series with a fraction of its points. The level is
+ * guarded by the lock of the source series.
+ */
+public class SummaryLevel extends XYSeries {
+  /** The initial buffer capacity. */
+  private static final int INITIAL_CAPACITY = 16;
+  /** The source series, used as lock. */
+  private final XYSeries mSource;
+  /** The binary logarithm of the number of source values in a bucket. */
+  private final int mShift;
+  /** The X values of the bucket minimums. */
+  private double[] mMinXs = new double[INITIAL_CAPACITY];
+  /** The bucket minimums. */
+  private double[] mMinYs = new double[INITIAL_CAPACITY];
+  /** The X values of the bucket maximums. */
+  private double[] mMaxXs = new double[INITIAL_CAPACITY];
+  /** The bucket maximums. */
+  private double[] mMaxYs = new double[INITIAL_CAPACITY];
+  /** The bucket sums. */
+  private double[] mSums = new double[INITIAL_CAPACITY];
+  /** The bucket value counts. */
+  private int[] mCounts = new int[INITIAL_CAPACITY];
+  /** The buffer position of the oldest bucket. */
+  private int mHead;
+  /** The number of buckets. */
+  private int mSize;
+  /** The number of the oldest bucket. */
+  private long mFirstBucket;
+
+  /**
+   * Builds a new summary level.
+   *
+   * @param source the source series
+   * @param shift the binary logarithm of the number of source values in a
+   *          bucket
+   */
+  SummaryLevel(XYSeries source, int shift) {
+    super(source.getTitle(), source.getScaleNumber());
+    mSource = source;
+    mShift = shift;
+  }
+
+  /**
+   * Returns the number of source values summarized by a full bucket.
+   *
+   * @return the bucket size
+   */
+  public int getBucketSize() {
+    return 1 << mShift;
+  }
+
+  /**
+   * Returns the number of buckets in the level.
+   *
+   * @return the bucket count
+   */
+  public int getBucketCount() {
+    synchronized (mSource) {
+      return mSize;
+    }
+  }
+
+  /**
+   * Returns the mean of the source values in the given bucket.
+   *
+   * @param bucket the bucket index
+   * @return the mean value
+   */
+  public double getMean(int bucket) {
+    synchronized (mSource) {
+      checkBucket(bucket);
+      int position = physical(bucket);
+      return mSums[position] / mCounts[position];
+    }
+  }
+
+  /**
+   * Adds a source value to the level.
+   *
+   * @param sequence the position of the value since the summary was built
+   * @param x the value for the X axis
+   * @param y the value for the Y axis
+   */
+  void put(long sequence, double x, double y) {
+    long bucket = sequence >> mShift;
+    if (mSize > 0 && bucket == mFirstBucket + mSize - 1) {
+      int position = physical(mSize - 1);
+      if (y < mMinYs[position]) {
+        mMinXs[position] = x;
+        mMinYs[position] = y;
+      }
+      if (y > mMaxYs[position]) {
+        mMaxXs[position] = x;
+        mMaxYs[position] = y;
+      }
+      mSums[position] += y;
+      mCounts[position]++;
+      return;
+    }
+    if (mSize == 0) {
+      mFirstBucket = bucket;
+    } else if (mSize == mMinXs.length) {
+      grow();
+    }
+    int position = physical(mSize);
+    mMinXs[position] = x;
+    mMinYs[position] = y;
+    mMaxXs[position] = x;
+    mMaxYs[position] = y;
+    mSums[position] = y;
+    mCounts[position] = 1;
+    mSize++;
+  }
+
+  /**
+   * Drops the buckets that only summarize source values which are gone.
+   *
+   * @param sequence the position of the oldest remaining source value
+   */
+  void evict(long sequence) {
+    while (mSize > 0 && (mFirstBucket + 1) << mShift <= sequence) {
+      mHead = physical(1);
+      mFirstBucket++;
+      mSize--;
+    }
+  }
+
+  /**
+   * Drops all the buckets.
+   */
+  void reset() {
+    mHead = 0;
+    mSize = 0;
+    mFirstBucket = 0;
+  }
+
+  /**
+   * The summary levels are read only.
+   *
+   * @param x the value for the X axis
+   * @param y the value for the Y axis
+   */
+  @Override
+  public void add(double x, double y) {
+    throw new UnsupportedOperationException("Summary levels are read only");
+  }
+
+  /**
+   * The summary levels are read only.
+   *
+   * @param index the index to be added the data to
+   * @param x the value for the X axis
+   * @param y the value for the Y axis
+   */
+  @Override
+  public void add(int index, double x, double y) {
+    throw new UnsupportedOperationException("Summary levels are read only");
+  }
+
+  /**
+   * The summary levels are read only.
+   *
+   * @param index the index in the series of the value to remove
+   */
+  @Override
+  public void remove(int index) {
+    throw new UnsupportedOperationException("Summary levels are read only");
+  }
+
+  /**
+   * The summary levels are read only.
+   */
+  @Override
+  public void clear() {
+    throw new UnsupportedOperationException("Summary levels are read only");
+  }
+
+  /**
+   * Returns the X axis value at the specified index. Every bucket provides two
+   * values, its minimum and its maximum, in X order.
+   *
+   * @param index the index
+   * @return the X value
+   */
+  @Override
+  public double getX(int index) {
+    synchronized (mSource) {
+      checkBucket(index >> 1);
+      int position = physical(index >> 1);
+      boolean minFirst = mMinXs[position] <= mMaxXs[position];
+      return minFirst == ((index & 1) == 0) ? mMinXs[position] : mMaxXs[position];
+    }
+  }
+
+  /**
+   * Returns the Y axis value at the specified index. Every bucket provides two
+   * values, its minimum and its maximum, in X order.
+   *
+   * @param index the index
+   * @return the Y value
+   */
+  @Override
+  public double getY(int index) {
+    synchronized (mSource) {
+      checkBucket(index >> 1);
+      int position = physical(index >> 1);
+      boolean minFirst = mMinXs[position] <= mMaxXs[position];
+      return minFirst == ((index & 1) == 0) ? mMinYs[position] : mMaxYs[position];
+    }
+  }
+
+  /**
+   * Returns submap of x and y values according to the given start and end
+   *
+   * @param start start x value
+   * @param stop stop x value
+   * @param beforeAfterPoints if the points before and after the first and last
+   *          visible ones must be displayed
+   * @return a submap of x and y values
+   */
+  @Override
+  public SortedMap<Double, Double> getRange(double start, double stop, boolean beforeAfterPoints) {
+    synchronized (mSource) {
+      int count = mSize * 2;
+      int from = lowerBound(start);
+      int to = lowerBound(stop);
+      if (beforeAfterPoints) {
+        from = Math.max(0, from - 1);
+        to = Math.min(count, to + 1);
+      }
+      SortedMap<Double, Double> range = new TreeMap<Double, Double>();
+      for (int i = from; i < to; i++) {
+        range.put(getX(i), getY(i));
+      }
+      return range;
+    }
+  }
+
+  /**
+   * Returns the index range of the values whose X is within the given range.
+   *
+   * @param fromX the start X value, inclusive
+   * @param toX the stop X value, exclusive
+   * @param includeNeighbours if the values before and after the range must be
+   *          included
+   * @param range receives the first index and the index after the last one,
+   *          may be null
+   * @return the index range
+   */
+  @Override
+  public int[] indexRange(double fromX, double toX, boolean includeNeighbours, int[] range) {
+    synchronized (mSource) {
+      int from = lowerBound(fromX);
+      int to = lowerBound(toX);
+      if (includeNeighbours) {
+        from = Math.max(0, from - 1);
+        to = Math.min(mSize * 2, to + 1);
+      }
+      if (range == null) {
+        range = new int[2];
+      }
+      range[0] = from;
+      range[1] = Math.max(from, to);
+      return range;
+    }
+  }
+
+  /**
+   * Copies the X values of an index range.
+   *
+   * @param from the first index
+   * @param to the index after the last one
+   * @param dst receives the values, starting at its first element
+   */
+  @Override
+  public void copyX(int from, int to, double[] dst) {
+    synchronized (mSource) {
+      for (int i = from; i < to; i++) {
+        dst[i - from] = getX(i);
+      }
+    }
+  }
+
+  /**
+   * Copies the Y values of an index range.
+   *
+   * @param from the first index
+   * @param to the index after the last one
+   * @param dst receives the values, starting at its first element
+   */
+  @Override
+  public void copyY(int from, int to, double[] dst) {
+    synchronized (mSource) {
+      for (int i = from; i < to; i++) {
+        dst[i - from] = getY(i);
+      }
+    }
+  }
+
+  /**
+   * Copies the values whose X is within the given range as one consistent
+   * snapshot.
+   *
+   * @param fromX the start X value, inclusive
+   * @param toX the stop X value, exclusive
+   * @param includeNeighbours if the values before and after the range must be
+   *          included
+   * @param snapshot receives the values, may be null
+   * @return the snapshot
+   */
+  @Override
+  public XYSeriesSnapshot snapshot(double fromX, double toX, boolean includeNeighbours,
+      XYSeriesSnapshot snapshot) {
+    synchronized (mSource) {
+      return super.snapshot(fromX, toX, includeNeighbours, snapshot);
+    }
+  }
+
+  /**
+   * Returns the index of the given X value, following the contract of
+   * <code>Collections.binarySearch</code>.
+   *
+   * @param key the X value
+   * @return the index of the value or <code>(-(insertion point) - 1)</code>
+   */
+  @Override
+  public int getIndexForKey(double key) {
+    synchronized (mSource) {
+      int index = lowerBound(key);
+      if (index < mSize * 2 && getX(index) == key) {
+        return index;
+      }
+      return -index - 1;
+    }
+  }
+
+  /**
+   * Returns the series item count.
+   *
+   * @return the series item count
+   */
+  @Override
+  public int getItemCount() {
+    // not guarded, as the series constructor calls it before the source is set
+    return mSize * 2;
+  }
+
+  /**
+   * Returns the minimum value on the X axis.
+   *
+   * @return the X axis minimum value
+   */
+  @Override
+  public double getMinX() {
+    synchronized (mSource) {
+      return mSize == 0 ? MathHelper.NULL_VALUE : getX(0);
+    }
+  }
+
+  /**
+   * Returns the minimum value on the Y axis.
+   *
+   * @return the Y axis minimum value
+   */
+  @Override
+  public double getMinY() {
+    synchronized (mSource) {
+      double min = MathHelper.NULL_VALUE;
+      for (int i = 0; i < mSize; i++) {
+        min = Math.min(min, mMinYs[physical(i)]);
+      }
+      return min;
+    }
+  }
+
+  /**
+   * Returns the maximum value on the X axis.
+   *
+   * @return the X axis maximum value
+   */
+  @Override
+  public double getMaxX() {
+    synchronized (mSource) {
+      return mSize == 0 ? -MathHelper.NULL_VALUE : getX(mSize * 2 - 1);
+    }
+  }
+
+  /**
+   * Returns the maximum value on the Y axis.
+   *
+   * @return the Y axis maximum value
+   */
+  @Override
+  public double getMaxY() {
+    synchronized (mSource) {
+      double max = -MathHelper.NULL_VALUE;
+      for (int i = 0; i < mSize; i++) {
+        max = Math.max(max, mMaxYs[physical(i)]);
+      }
+      return max;
+    }
+  }
+
+  /**
+   * Returns the index of the first value whose X is not lower than the given
+   * one, or the item count if there is no such value.
+   *
+   * @param x the X value
+   * @return the lower bound index
+   */
+  private int lowerBound(double x) {
+    int low = 0;
+    int high = mSize * 2;
+    while (low < high) {
+      int mid = (low + high) >>> 1;
+      if (getX(mid) < x) {
+        low = mid + 1;
+      } else {
+        high = mid;
+      }
+    }
+    return low;
+  }
+
+  /**
+   * Doubles the buffer capacity, unrolling the ring in the process.
+   */
+  private void grow() {
+    int capacity = mMinXs.length * 2;
+    mMinXs = unroll(mMinXs, capacity);
+    mMinYs = unroll(mMinYs, capacity);
+    mMaxXs = unroll(mMaxXs, capacity);
+    mMaxYs = unroll(mMaxYs, capacity);
+    mSums = unroll(mSums, capacity);
+    int[] counts = new int[capacity];
+    int tail = Math.min(mSize, mCounts.length - mHead);
+    System.arraycopy(mCounts, mHead, counts, 0, tail);
+    System.arraycopy(mCounts, 0, counts, tail, mSize - tail);
+    mCounts = counts;
+    mHead = 0;
+  }
+
+  /**
+   * Copies a ring buffer into a larger one that starts at the oldest bucket.
+   *
+   * @param buffer the ring buffer
+   * @param capacity the new capacity
+   * @return the new buffer
+   */
+  private double[] unroll(double[] buffer, int capacity) {
+    double[] result = new double[capacity];
+    int tail = Math.min(mSize, buffer.length - mHead);
+    System.arraycopy(buffer, mHead, result, 0, tail);
+    System.arraycopy(buffer, 0, result, tail, mSize - tail);
+    return result;
+  }
+
+  /**
+   * Maps a bucket index to a buffer position.
+   *
+   * @param bucket the bucket index
+   * @return the buffer position
+   */
+  private int physical(int bucket) {
+    int position = mHead + bucket;
+    if (position >= mMinXs.length) {
+      position -= mMinXs.length;
+    }
+    return position;
+  }
+
+  /**
+   * Makes sure the given index refers to an existing bucket.
+   *
+   * @param bucket the bucket index
+   */
+  private void checkBucket(int bucket) {
+    if (bucket < 0 || bucket >= mSize) {
+      throw new IndexOutOfBoundsException("Bucket: " + bucket + ", Size: " + mSize);
+    }
+  }
+}
@@ -309,6 +309,126 @@ public class XYSeries implements Serializable {
     return mXY.getIndexForKey(key);
   }
 
+  /**
+   * Returns the index range of the values whose X is within the given range,
+   * the same values <code>getRange()</code> returns.
+   * 
+   * @param fromX the start X value, inclusive
+   * @param toX the stop X value, exclusive
+   * @param includeNeighbours if the values before and after the range must be
+   *          included
+   * @param range receives the first index and the index after the last one,
+   *          may be null
+   * @return the index range
+   */
+  public synchronized int[] indexRange(double fromX, double toX, boolean includeNeighbours,
+      int[] range) {
+    int count = getItemCount();
+    int from = findIndex(fromX);
+    int to = findIndex(toX);
+    if (includeNeighbours) {
+      from = Math.max(0, from - 1);
+      to = Math.min(count, to + 1);
+    }
+    if (range == null) {
+      range = new int[2];
+    }
+    range[0] = from;
+    range[1] = Math.max(from, to);
+    return range;
+  }
+
+  /**
+   * Copies the X values of an index range.
+   * 
+   * @param from the first index
+   * @param to the index after the last one
+   * @param dst receives the values, starting at its first element
+   */
+  public synchronized void copyX(int from, int to, double[] dst) {
+    for (int i = from; i < to; i++) {
+      dst[i - from] = getX(i);
+    }
+  }
+
+  /**
+   * Copies the Y values of an index range.
+   * 
+   * @param from the first index
+   * @param to the index after the last one
+   * @param dst receives the values, starting at its first element
+   */
+  public synchronized void copyY(int from, int to, double[] dst) {
+    for (int i = from; i < to; i++) {
+      dst[i - from] = getY(i);
+    }
+  }
+
+  /**
+   * Copies the values whose X is within the given range, the same values
+   * <code>getRange()</code> returns, as one consistent snapshot. Drawing from
+   * the snapshot doesn't require the series to stay locked.
+   * 
+   * @param fromX the start X value, inclusive
+   * @param toX the stop X value, exclusive
+   * @param includeNeighbours if the values before and after the range must be
+   *          included
+   * @param snapshot receives the values, may be null
+   * @return the snapshot
+   */
+  public synchronized XYSeriesSnapshot snapshot(double fromX, double toX,
+      boolean includeNeighbours, XYSeriesSnapshot snapshot) {
+    if (snapshot == null) {
+      snapshot = new XYSeriesSnapshot();
+    }
+    int count = getItemCount();
+    int from = findIndex(fromX);
+    int to = findIndex(toX);
+    if (includeNeighbours) {
+      from = Math.max(0, from - 1);
+      to = Math.min(count, to + 1);
+    }
+    to = Math.max(from, to);
+    snapshot.reset(from, to - from);
+    copyX(from, to, snapshot.getXs());
+    copyY(from, to, snapshot.getYs());
+    return snapshot;
+  }
+
+  /**
+   * Returns the index of the first value whose X is not lower than the given
+   * one, or the item count if there is no such value.
+   * 
+   * @param x the X value
+   * @return the index
+   */
+  private int findIndex(double x) {
+    int low = 0;
+    int high = getItemCount();
+    while (low < high) {
+      int mid = (low + high) >>> 1;
+      if (getX(mid) < x) {
+        low = mid + 1;
+      } else {
+        high = mid;
+      }
+    }
+    return low;
+  }
+
+  /**
+   * Returns a representation of the series that is detailed enough for
+   * displaying it when the given X distance maps to a single pixel. Series
+   * that keep a summary of their values may return a coarser series, the
+   * others return themselves.
+   * 
+   * @param pixelWidth the X distance covered by one pixel
+   * @return the series to be displayed
+   */
+  public XYSeries getSummary(double pixelWidth) {
+    return this;
+  }
+
   /**
    * Returns the series item count.
    * 
@@ -0,0 +1,90 @@
+/**
+ * Copyright (C) 2009 - 2013 SC 4ViewSoft SRL
+ *  
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *  
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *  
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.achartengine.model;
+
+import java.util.Arrays;
+
+/**
+ * A consistent copy of a range of series values, taken by
+ * <code>XYSeries.snapshot()</code>. The snapshot is meant to be reused from
+ * frame to frame, its buffers only grow.
+ */
+public class XYSeriesSnapshot {
+  /** The series index of the first value. */
+  private int mFirstIndex;
+  /** The number of values. */
+  private int mCount;
+  /** The X values. */
+  private double[] mXs = new double[0];
+  /** The Y values. */
+  private double[] mYs = new double[0];
+
+  /**
+   * Returns the series index of the first value, at the time the snapshot was
+   * taken.
+   * 
+   * @return the first index
+   */
+  public int getFirstIndex() {
+    return mFirstIndex;
+  }
+
+  /**
+   * Returns the number of values.
+   * 
+   * @return the value count
+   */
+  public int getCount() {
+    return mCount;
+  }
+
+  /**
+   * Returns the X values. Only the first <code>getCount()</code> elements are
+   * valid.
+   * 
+   * @return the X values
+   */
+  public double[] getXs() {
+    return mXs;
+  }
+
+  /**
+   * Returns the Y values. Only the first <code>getCount()</code> elements are
+   * valid.
+   * 
+   * @return the Y values
+   */
+  public double[] getYs() {
+    return mYs;
+  }
+
+  /**
+   * Prepares the snapshot to receive a range of values, growing the buffers if
+   * needed.
+   * 
+   * @param firstIndex the series index of the first value
+   * @param count the number of values
+   */
+  void reset(int firstIndex, int count) {
+    if (mXs.length < count) {
+      int capacity = Math.max(count, mXs.length * 2);
+      mXs = Arrays.copyOf(mXs, capacity);
+      mYs = Arrays.copyOf(mYs, capacity);
+    }
+    mFirstIndex = firstIndex;
+    mCount = count;
+  }
+}
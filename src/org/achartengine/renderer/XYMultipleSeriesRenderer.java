@@ -110,6 +110,10 @@ public class XYMultipleSeriesRenderer extends DefaultRenderer {
   private double mZoomInLimitX = 0;
   /** The zoom in limit permitted in the axis Y */
   private double mZoomInLimitY = 0;
+  /** If the chart should scroll its plot instead of redrawing it. */
+  private boolean mStripChart;
+  /** If the parts of the chart that don't follow the X axis are cached. */
+  private boolean mLayerCacheEnabled;
 
   /**
    * An enum for the XY chart orientation of the X axis.
@@ -1273,6 +1277,51 @@ public class XYMultipleSeriesRenderer extends DefaultRenderer {
     this.mZoomInLimitY = zoomInLimitY;
   }
 
+  /**
+   * Returns if the chart is drawn as a strip chart.
+   * 
+   * @return if the plot is scrolled instead of redrawn
+   */
+  public boolean isStripChart() {
+    return mStripChart;
+  }
+
+  /**
+   * Sets if the chart should be drawn as a strip chart. A strip chart keeps
+   * the plotted series in a bitmap. When the visible X range moves forward, the
+   * bitmap is scrolled and only the newly appended points are drawn. Any other
+   * change of the visible range redraws the plot. Only the chart types that
+   * connect the points with a line support this, and only for the horizontal
+   * orientation with clicks disabled.
+   * 
+   * @param stripChart if the plot should be scrolled instead of redrawn
+   */
+  public void setStripChart(boolean stripChart) {
+    mStripChart = stripChart;
+  }
+
+  /**
+   * Returns if the static layer of the chart is cached.
+   * 
+   * @return if the static layer is cached
+   */
+  public boolean isLayerCacheEnabled() {
+    return mLayerCacheEnabled;
+  }
+
+  /**
+   * Sets if the static layer of the chart should be cached. The static layer
+   * holds the Y axis labels and grid, the titles, the legend and the axes. It
+   * is drawn to a bitmap and reused for as long as the view size, the Y axis
+   * ranges and the titles stay the same. Other renderer changes are not
+   * detected, call XYChart.invalidateStaticLayer() after them.
+   * 
+   * @param enabled if the static layer should be cached
+   */
+  public void setLayerCacheEnabled(boolean enabled) {
+    mLayerCacheEnabled = enabled;
+  }
+
   public int getScalesCount() {
     return scalesCount;
   }
@@ -55,6 +55,21 @@ public class XYSeriesRenderer extends SimpleSeriesRenderer {
   private Align mAnnotationsTextAlign = Align.CENTER;
   /** The annotations color. */
   private int mAnnotationsColor = DefaultRenderer.TEXT_COLOR;
+  /** The decimation to apply to the visible points before drawing them. */
+  private Decimation mDecimation = Decimation.NONE;
+
+  /**
+   * The ways of reducing the number of drawn points when many of them share a
+   * pixel column.
+   */
+  public enum Decimation {
+    /** Draw all the points. */
+    NONE,
+    /** Keep the first, last, lowest and highest point of every pixel column. */
+    M4,
+    /** Keep the most significant point of every half pixel bucket. */
+    LTTB
+  };
 
   /**
    * A descriptor for the line fill behavior.
@@ -167,6 +182,21 @@ public class XYSeriesRenderer extends SimpleSeriesRenderer {
     return mFillBelowLine.toArray(new FillOutsideLine[0]);
   }
 
+  /**
+   * Returns if the line should be filled on any of its sides.
+   * 
+   * @return if there is an outside fill other than NONE
+   */
+  public boolean isFillOutsideLine() {
+    int length = mFillBelowLine.size();
+    for (int i = 0; i < length; i++) {
+      if (mFillBelowLine.get(i).getType() != Type.NONE) {
+        return true;
+      }
+    }
+    return false;
+  }
+
   /**
    * Sets if the line chart should be filled outside its line. Filling outside
    * with FillOutsideLine.INTEGRAL the line transforms a line chart into an area
@@ -391,6 +421,25 @@ public class XYSeriesRenderer extends SimpleSeriesRenderer {
     mAnnotationsTextAlign = align;
   }
 
+  /**
+   * Returns the decimation applied to the visible points before drawing them.
+   * 
+   * @return the decimation
+   */
+  public Decimation getDecimation() {
+    return mDecimation;
+  }
+
+  /**
+   * Sets the decimation applied to the visible points before drawing them.
+   * Decimation only affects the chart types that draw the series as a line.
+   * 
+   * @param decimation the decimation
+   */
+  public void setDecimation(Decimation decimation) {
+    mDecimation = decimation;
+  }
+
   /**
    * Returns the annotations color.
    * 
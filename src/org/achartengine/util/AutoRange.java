@@ -0,0 +1,228 @@
+/**
+ * Copyright (C) 2009 - 2013 SC 4ViewSoft SRL
+ *  
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *  
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *  
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.achartengine.util;
+
+/**
+ * Derives live Y axis bounds from the values in a sliding X window, such as
+ * the last seconds of a recording. The extrema of the window are kept up to
+ * date in amortized constant time per value. The bounds follow them with
+ * hysteresis and smoothing, so the axis neither jumps around nor stays
+ * stretched by a spike that has long scrolled out of view. The bounds widen
+ * right away to fit new extrema, but only narrow down once the values take up
+ * less than a given part of the axis, and then gradually. For charts that
+ * redraw whenever an axis changes, the bounds can instead move in steps: they
+ * widen with some headroom to spare and narrow in one go. Values may be added
+ * on one thread while the bounds are read on another.
+ */
+public class AutoRange {
+  /** The default margin around the values, as a part of their range. */
+  public static final double DEFAULT_MARGIN = 0.05;
+  /** The default part of the axis the values may shrink to before it narrows. */
+  public static final double DEFAULT_SHRINK_THRESHOLD = 0.5;
+  /** The default part of the remaining distance the bounds narrow per update. */
+  public static final double DEFAULT_SMOOTHING = 0.2;
+  /** The default headroom left when the bounds move, as a part of the value range. */
+  public static final double DEFAULT_HEADROOM = 0;
+  /** The part of the value range below which narrowing bounds snap to it. */
+  private static final double SNAP = 0.01;
+  /** The width of the X window. */
+  private final double mWindow;
+  /** The extrema of the values in the window. */
+  private final WindowExtrema mExtrema = new WindowExtrema();
+  /** The X values in the window, as a ring buffer. */
+  private double[] mXs = new double[64];
+  /** The buffer position of the oldest X value. */
+  private int mHead;
+  /** The margin around the values, as a part of their range. */
+  private double mMargin = DEFAULT_MARGIN;
+  /** The part of the axis the values may shrink to before it narrows. */
+  private double mShrinkThreshold = DEFAULT_SHRINK_THRESHOLD;
+  /** The part of the remaining distance the bounds narrow per update. */
+  private double mSmoothing = DEFAULT_SMOOTHING;
+  /** The headroom left when the bounds move, as a part of the value range. */
+  private double mHeadroom = DEFAULT_HEADROOM;
+  /** The minimum axis bound. */
+  private double mMin = MathHelper.NULL_VALUE;
+  /** The maximum axis bound. */
+  private double mMax = -MathHelper.NULL_VALUE;
+  /** If the bounds are narrowing down to the values. */
+  private boolean mNarrowing;
+
+  /**
+   * Builds a new auto range.
+   * 
+   * @param window the width of the X window
+   */
+  public AutoRange(double window) {
+    mWindow = window;
+  }
+
+  /**
+   * Sets the margin around the values.
+   * 
+   * @param margin the margin, as a part of the value range
+   */
+  public synchronized void setMargin(double margin) {
+    mMargin = margin;
+  }
+
+  /**
+   * Sets how far the values may shrink before the axis narrows down to them.
+   * 
+   * @param threshold the part of the axis the values may shrink to, between 0
+   *          and 1
+   */
+  public synchronized void setShrinkThreshold(double threshold) {
+    mShrinkThreshold = threshold;
+  }
+
+  /**
+   * Sets how fast the axis narrows down to the values.
+   * 
+   * @param smoothing the part of the remaining distance the bounds narrow per
+   *          update, between 0 (exclusive) and 1 (immediately)
+   */
+  public synchronized void setSmoothing(double smoothing) {
+    mSmoothing = smoothing;
+  }
+
+  /**
+   * Sets the headroom the bounds leave beyond the margin whenever they move,
+   * so values that keep growing slowly don't move the bounds on every update.
+   * 
+   * @param headroom the headroom, as a part of the value range
+   */
+  public synchronized void setHeadroom(double headroom) {
+    mHeadroom = headroom;
+  }
+
+  /**
+   * Adds a value. The values that dropped out of the window are removed.
+   * 
+   * @param x the X value, must not be smaller than the previous one
+   * @param y the Y value
+   */
+  public void add(double x, double y) {
+    add(x, y, y);
+  }
+
+  /**
+   * Adds a range of values with the same X, such as the values of a sample.
+   * The values that dropped out of the window are removed.
+   * 
+   * @param x the X value, must not be smaller than the previous one
+   * @param min the minimum of the Y values
+   * @param max the maximum of the Y values
+   */
+  public synchronized void add(double x, double min, double max) {
+    int size = mExtrema.size();
+    while (size > 0 && mXs[mHead] < x - mWindow) {
+      mExtrema.removeFirst();
+      mHead = (mHead + 1) % mXs.length;
+      size--;
+    }
+    if (size == mXs.length) {
+      double[] xs = new double[size * 2];
+      System.arraycopy(mXs, mHead, xs, 0, size - mHead);
+      System.arraycopy(mXs, 0, xs, size - mHead, mHead);
+      mXs = xs;
+      mHead = 0;
+    }
+    mXs[(mHead + size) % mXs.length] = x;
+    mExtrema.add(min, max);
+  }
+
+  /**
+   * Removes all the values and forgets the bounds.
+   */
+  public synchronized void clear() {
+    mExtrema.clear();
+    mHead = 0;
+    mMin = MathHelper.NULL_VALUE;
+    mMax = -MathHelper.NULL_VALUE;
+    mNarrowing = false;
+  }
+
+  /**
+   * Moves the bounds one step closer to the values in the window. Meant to be
+   * called once per frame.
+   */
+  public synchronized void update() {
+    if (mExtrema.size() == 0) {
+      return;
+    }
+    double low = mExtrema.getMin();
+    double high = mExtrema.getMax();
+    double span = high - low;
+    // a flat line could not be seen on the edge of the axis
+    double margin = span == 0 ? Math.abs(high) * 0.5 + 1 : span * mMargin;
+    low -= margin;
+    high += margin;
+    double lowTarget = low - span * mHeadroom;
+    double highTarget = high + span * mHeadroom;
+    if (mMin > mMax) {
+      mMin = lowTarget;
+      mMax = highTarget;
+      return;
+    }
+    if (low < mMin) {
+      mMin = lowTarget;
+    }
+    if (high > mMax) {
+      mMax = highTarget;
+    }
+    if (!mNarrowing && high - low < (mMax - mMin) * mShrinkThreshold) {
+      mNarrowing = true;
+    }
+    if (mNarrowing) {
+      double tolerance = (high - low) * SNAP;
+      mMin = follow(mMin, lowTarget, tolerance);
+      mMax = follow(mMax, highTarget, tolerance);
+      mNarrowing = mMin != lowTarget || mMax != highTarget;
+    }
+  }
+
+  /**
+   * Moves a bound towards its target.
+   * 
+   * @param bound the bound
+   * @param target the target
+   * @param tolerance the distance below which the bound snaps to the target
+   * @return the moved bound
+   */
+  private double follow(double bound, double target, double tolerance) {
+    double next = bound + (target - bound) * mSmoothing;
+    return Math.abs(target - next) < tolerance ? target : next;
+  }
+
+  /**
+   * Returns the minimum axis bound.
+   * 
+   * @return the minimum or MathHelper.NULL_VALUE if no value was added yet
+   */
+  public synchronized double getMin() {
+    return mMin;
+  }
+
+  /**
+   * Returns the maximum axis bound.
+   * 
+   * @return the maximum or -MathHelper.NULL_VALUE if no value was added yet
+   */
+  public synchronized double getMax() {
+    return mMax;
+  }
+}
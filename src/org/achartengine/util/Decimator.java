@@ -0,0 +1,156 @@
+/**
+ * Copyright (C) 2009 - 2013 SC 4ViewSoft SRL
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.achartengine.util;
+
+/**
+ * Reduces series points, given in screen coordinates with ascending X values,
+ * to the ones that make a visible difference when drawn as a line. The points
+ * are stored as consecutive x, y pairs.
+ */
+public class Decimator {
+
+  private Decimator() {
+    // empty constructor
+  }
+
+  /**
+   * Applies M4 decimation: every pixel column is reduced to its first, last,
+   * lowest and highest point, which keeps the rasterized line unchanged.
+   *
+   * @param points the input points
+   * @param length the number of used values in the input points
+   * @param out the output points, at least as large as the input length. It
+   *          may be the input array itself.
+   * @return the number of used values in the output points
+   */
+  public static int m4(float[] points, int length, float[] out) {
+    if (length == 0) {
+      return 0;
+    }
+    int count = 0;
+    int first = 0;
+    int min = 0;
+    int max = 0;
+    int column = (int) Math.floor(points[0]);
+    for (int i = 2; i < length; i += 2) {
+      int current = (int) Math.floor(points[i]);
+      if (current != column) {
+        count = emitColumn(points, first, min, max, i - 2, out, count);
+        column = current;
+        first = i;
+        min = i;
+        max = i;
+      } else if (points[i + 1] < points[min + 1]) {
+        min = i;
+      } else if (points[i + 1] > points[max + 1]) {
+        max = i;
+      }
+    }
+    return emitColumn(points, first, min, max, length - 2, out, count);
+  }
+
+  /**
+   * Writes the distinct representative points of one pixel column, in their
+   * original order.
+   *
+   * @param points the input points
+   * @param first the index of the first point in the column
+   * @param min the index of the lowest point in the column
+   * @param max the index of the highest point in the column
+   * @param last the index of the last point in the column
+   * @param out the output points
+   * @param count the number of used values in the output points
+   * @return the new number of used values in the output points
+   */
+  private static int emitColumn(float[] points, int first, int min, int max, int last,
+      float[] out, int count) {
+    int low = Math.min(min, max);
+    int high = Math.max(min, max);
+    out[count++] = points[first];
+    out[count++] = points[first + 1];
+    if (low > first) {
+      out[count++] = points[low];
+      out[count++] = points[low + 1];
+    }
+    if (high > low) {
+      out[count++] = points[high];
+      out[count++] = points[high + 1];
+    }
+    if (last > high) {
+      out[count++] = points[last];
+      out[count++] = points[last + 1];
+    }
+    return count;
+  }
+
+  /**
+   * Applies Largest-Triangle-Three-Buckets decimation: the points are split
+   * into buckets and from every bucket the point that forms the largest
+   * triangle with its neighbours is kept.
+   *
+   * @param points the input points
+   * @param length the number of used values in the input points
+   * @param threshold the number of points to keep
+   * @param out the output points, at least as large as the input length. It
+   *          must not be the input array itself.
+   * @return the number of used values in the output points
+   */
+  public static int lttb(float[] points, int length, int threshold, float[] out) {
+    int size = length / 2;
+    if (threshold >= size || threshold < 3) {
+      System.arraycopy(points, 0, out, 0, length);
+      return length;
+    }
+    double every = (double) (size - 2) / (threshold - 2);
+    int count = 0;
+    int selected = 0;
+    out[count++] = points[0];
+    out[count++] = points[1];
+    for (int i = 0; i < threshold - 2; i++) {
+      int averageStart = (int) Math.floor((i + 1) * every) + 1;
+      int averageEnd = Math.min((int) Math.floor((i + 2) * every) + 1, size);
+      float averageX = 0;
+      float averageY = 0;
+      for (int j = averageStart; j < averageEnd; j++) {
+        averageX += points[2 * j];
+        averageY += points[2 * j + 1];
+      }
+      averageX /= averageEnd - averageStart;
+      averageY /= averageEnd - averageStart;
+
+      int rangeStart = (int) Math.floor(i * every) + 1;
+      int rangeEnd = (int) Math.floor((i + 1) * every) + 1;
+      float selectedX = points[2 * selected];
+      float selectedY = points[2 * selected + 1];
+      float maxArea = -1;
+      int next = rangeStart;
+      for (int j = rangeStart; j < rangeEnd; j++) {
+        float area = Math.abs((selectedX - averageX) * (points[2 * j + 1] - selectedY)
+            - (selectedX - points[2 * j]) * (averageY - selectedY));
+        if (area > maxArea) {
+          maxArea = area;
+          next = j;
+        }
+      }
+      out[count++] = points[2 * next];
+      out[count++] = points[2 * next + 1];
+      selected = next;
+    }
+    out[count++] = points[length - 2];
+    out[count++] = points[length - 1];
+    return count;
+  }
+}
@@ -0,0 +1,148 @@
+/**
+ * Copyright (C) 2009 - 2013 SC 4ViewSoft SRL
+ *  
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *  
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *  
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.achartengine.util;
+
+/**
+ * A radix-2 fast Fourier transform, for computing the amplitude spectrum of a
+ * block of real values such as the most recent samples of a signal. The values
+ * are detrended by their mean and weighted with a Hann window before the
+ * transform. The twiddle factors, the window and the work buffers are
+ * allocated once, so a transform allocates nothing. An instance must not be
+ * used by several threads at the same time.
+ */
+public class FFT {
+  /** The number of values per transform. */
+  private final int mSize;
+  /** The bit reversed index of every position. */
+  private final int[] mReverse;
+  /** The cosine twiddle factors. */
+  private final double[] mCos;
+  /** The sine twiddle factors. */
+  private final double[] mSin;
+  /** The Hann window. */
+  private final double[] mWindow;
+  /** The sum of the window, its coherent gain times the size. */
+  private final double mWindowSum;
+  /** The real parts being transformed. */
+  private final double[] mRe;
+  /** The imaginary parts being transformed. */
+  private final double[] mIm;
+
+  /**
+   * Builds a new transform.
+   * 
+   * @param size the number of values per transform, a power of two
+   * @throws IllegalArgumentException if the size is not a power of two
+   */
+  public FFT(int size) {
+    if (size < 2 || (size & (size - 1)) != 0) {
+      throw new IllegalArgumentException("The size must be a power of two: " + size);
+    }
+    mSize = size;
+    mReverse = new int[size];
+    int shift = 32 - Integer.numberOfTrailingZeros(size);
+    for (int i = 0; i < size; i++) {
+      mReverse[i] = Integer.reverse(i) >>> shift;
+    }
+    mCos = new double[size / 2];
+    mSin = new double[size / 2];
+    for (int k = 0; k < size / 2; k++) {
+      double angle = -2 * Math.PI * k / size;
+      mCos[k] = Math.cos(angle);
+      mSin[k] = Math.sin(angle);
+    }
+    mWindow = new double[size];
+    double sum = 0;
+    for (int i = 0; i < size; i++) {
+      mWindow[i] = 0.5 - 0.5 * Math.cos(2 * Math.PI * i / size);
+      sum += mWindow[i];
+    }
+    mWindowSum = sum;
+    mRe = new double[size];
+    mIm = new double[size];
+  }
+
+  /**
+   * Returns the number of values per transform.
+   * 
+   * @return the size
+   */
+  public int getSize() {
+    return mSize;
+  }
+
+  /**
+   * Returns the number of frequency bins of a spectrum, from 0 up to half the
+   * sample rate.
+   * 
+   * @return the bin count
+   */
+  public int getBinCount() {
+    return mSize / 2 + 1;
+  }
+
+  /**
+   * Computes the single sided amplitude spectrum of a block of values. Bin k
+   * is at k times the sample rate divided by the size. The amplitudes are
+   * corrected for the gain of the window, so a sine that falls onto a bin
+   * shows with its amplitude. The mean of the values is removed, so bin 0 is
+   * close to 0.
+   * 
+   * @param values the values, as a ring buffer of the transform size
+   * @param start the position of the oldest value in the ring buffer
+   * @param amplitudes receives one amplitude per frequency bin
+   */
+  public void amplitudes(double[] values, int start, double[] amplitudes) {
+    int size = mSize;
+    double mean = 0;
+    for (int i = 0; i < size; i++) {
+      mean += values[i];
+    }
+    mean /= size;
+    for (int i = 0; i < size; i++) {
+      int index = start + i;
+      if (index >= size) {
+        index -= size;
+      }
+      int position = mReverse[i];
+      mRe[position] = (values[index] - mean) * mWindow[i];
+      mIm[position] = 0;
+    }
+    for (int half = 1; half < size; half <<= 1) {
+      int step = size / (2 * half);
+      for (int i = 0; i < size; i += 2 * half) {
+        for (int k = 0; k < half; k++) {
+          double cos = mCos[k * step];
+          double sin = mSin[k * step];
+          int a = i + k;
+          int b = a + half;
+          double re = mRe[b] * cos - mIm[b] * sin;
+          double im = mRe[b] * sin + mIm[b] * cos;
+          mRe[b] = mRe[a] - re;
+          mIm[b] = mIm[a] - im;
+          mRe[a] += re;
+          mIm[a] += im;
+        }
+      }
+    }
+    double scale = 2 / mWindowSum;
+    for (int k = 0; k <= size / 2; k++) {
+      double amplitude = Math.sqrt(mRe[k] * mRe[k] + mIm[k] * mIm[k]) * scale;
+      // DC and the Nyquist frequency have no negative frequency counterpart
+      amplitudes[k] = k == 0 || k == size / 2 ? amplitude / 2 : amplitude;
+    }
+  }
+}
@@ -0,0 +1,201 @@
+/**
+ * Copyright (C) 2009 - 2013 SC 4ViewSoft SRL
+ *  
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *  
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *  
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.achartengine.util;
+
+import java.text.NumberFormat;
+import java.util.AbstractList;
+import java.util.List;
+import java.util.RandomAccess;
+
+import android.graphics.Paint;
+import android.graphics.Typeface;
+
+/**
+ * Remembers the most recently used axis labels, along with their texts. The
+ * labels only depend on the label start, end and step computed by
+ * <code>MathHelper.computeLabels()</code>, which stay the same while a moving
+ * range advances by less than a label step, so most frames of a live chart are
+ * answered from the cache. Looking up cached labels does not allocate.
+ */
+public class LabelCache {
+  /** The cached labels, the most recently used first. */
+  private final Labels[] mEntries;
+  /** The number of cached labels. */
+  private int mSize;
+  /** The reusable label parameters. */
+  private final double[] mParams = new double[3];
+
+  /**
+   * Builds a new label cache.
+   * 
+   * @param capacity the maximum number of label sets to remember
+   */
+  public LabelCache(int capacity) {
+    mEntries = new Labels[capacity];
+  }
+
+  /**
+   * Returns the labels for a data interval, see
+   * <code>MathHelper.getLabels()</code>. Labels that are not a number are
+   * left out. The format is compared by identity, so a format must not be
+   * changed once it was used.
+   * 
+   * @param start start value
+   * @param end final value
+   * @param approxNumLabels desired number of labels
+   * @param format the format for the label texts, may be null
+   * @return the labels
+   */
+  public synchronized Labels getLabels(double start, double end, int approxNumLabels,
+      NumberFormat format) {
+    double[] params = mParams;
+    if (approxNumLabels <= 0) {
+      params[0] = Double.NaN;
+      params[1] = Double.NaN;
+      params[2] = Double.NaN;
+    } else {
+      MathHelper.computeLabels(start, end, approxNumLabels, params);
+    }
+    for (int i = 0; i < mSize; i++) {
+      Labels labels = mEntries[i];
+      if (labels.matches(params, format)) {
+        System.arraycopy(mEntries, 0, mEntries, 1, i);
+        mEntries[0] = labels;
+        return labels;
+      }
+    }
+    Labels labels = new Labels(params, format, MathHelper.getLabels(start, end, approxNumLabels));
+    if (mSize < mEntries.length) {
+      mSize++;
+    }
+    System.arraycopy(mEntries, 0, mEntries, 1, mSize - 1);
+    mEntries[0] = labels;
+    return labels;
+  }
+
+  /**
+   * Forgets all the cached labels.
+   */
+  public synchronized void clear() {
+    for (int i = 0; i < mSize; i++) {
+      mEntries[i] = null;
+    }
+    mSize = 0;
+  }
+
+  /**
+   * An immutable set of labels, with the texts to display for them. The text
+   * widths are measured on first use.
+   */
+  public static final class Labels extends AbstractList<Double> implements RandomAccess {
+    /** The label start, end and step the labels were computed from. */
+    private final double mStart, mEnd, mStep;
+    /** The format of the texts. */
+    private final NumberFormat mFormat;
+    /** The label values. */
+    private final Double[] mValues;
+    /** The label texts. */
+    private final String[] mTexts;
+    /** The text widths, null until measured. */
+    private float[] mWidths;
+    /** The text size the widths were measured with. */
+    private float mWidthsTextSize;
+    /** The typeface the widths were measured with. */
+    private Typeface mWidthsTypeface;
+
+    /**
+     * Builds a new set of labels.
+     * 
+     * @param params the label start, end and step
+     * @param format the format of the texts
+     * @param values the label values
+     */
+    private Labels(double[] params, NumberFormat format, List<Double> values) {
+      mStart = params[0];
+      mEnd = params[1];
+      mStep = params[2];
+      mFormat = format;
+      int count = 0;
+      for (Double value : values) {
+        if (!value.isNaN()) {
+          count++;
+        }
+      }
+      mValues = new Double[count];
+      mTexts = new String[count];
+      count = 0;
+      for (Double value : values) {
+        if (!value.isNaN()) {
+          mValues[count] = value;
+          mTexts[count] = MathHelper.getLabel(format, value);
+          count++;
+        }
+      }
+    }
+
+    /**
+     * Checks if the labels were computed from the given parameters.
+     */
+    private boolean matches(double[] params, NumberFormat format) {
+      return mFormat == format && Double.compare(mStart, params[0]) == 0
+          && Double.compare(mEnd, params[1]) == 0 && Double.compare(mStep, params[2]) == 0;
+    }
+
+    @Override
+    public Double get(int index) {
+      return mValues[index];
+    }
+
+    @Override
+    public int size() {
+      return mValues.length;
+    }
+
+    /**
+     * Returns the text to display for a label.
+     * 
+     * @param index the label index
+     * @return the label text
+     */
+    public String getText(int index) {
+      return mTexts[index];
+    }
+
+    /**
+     * Returns the width of a label text. The widths of all the labels are
+     * measured again whenever the text size or the typeface of the paint
+     * change.
+     * 
+     * @param index the label index
+     * @param paint the paint the text is drawn with
+     * @return the text width
+     */
+    public synchronized float getWidth(int index, Paint paint) {
+      if (mWidths == null || mWidthsTextSize != paint.getTextSize()
+          || mWidthsTypeface != paint.getTypeface()) {
+        if (mWidths == null) {
+          mWidths = new float[mTexts.length];
+        }
+        for (int i = 0; i < mTexts.length; i++) {
+          mWidths[i] = paint.measureText(mTexts[i]);
+        }
+        mWidthsTextSize = paint.getTextSize();
+        mWidthsTypeface = paint.getTypeface();
+      }
+      return mWidths[index];
+    }
+  }
+}
@@ -28,9 +28,17 @@ public class MathHelper {
   public static final double NULL_VALUE = Double.MAX_VALUE;
   /**
    * A number formatter to be used to make sure we have a maximum number of
-   * fraction digits in the labels.
+   * fraction digits in the labels. One per thread, as charts may be drawn from
+   * a render thread.
    */
-  private static final NumberFormat FORMAT = NumberFormat.getNumberInstance();
+  private static final ThreadLocal<NumberFormat> FORMAT = new ThreadLocal<NumberFormat>() {
+    @Override
+    protected NumberFormat initialValue() {
+      NumberFormat format = NumberFormat.getNumberInstance();
+      format.setMaximumFractionDigits(5);
+      return format;
+    }
+  };
 
   private MathHelper() {
     // empty constructor
@@ -72,8 +80,9 @@ public class MathHelper {
     if (approxNumLabels <= 0) {
       return labels;
     }
-    FORMAT.setMaximumFractionDigits(5);
-    double[] labelParams = computeLabels(start, end, approxNumLabels);
+    NumberFormat format = FORMAT.get();
+    double[] labelParams = new double[3];
+    computeLabels(start, end, approxNumLabels, labelParams);
     // when the start > end the inc will be negative so it will still work
     int numLabels = 1 + (int) ((labelParams[1] - labelParams[0]) / labelParams[2]);
     // we want the range to be inclusive but we don't want to blow up when
@@ -85,7 +94,7 @@ public class MathHelper {
       try {
         // this way, we avoid a label value like 0.4000000000000000001 instead
         // of 0.4
-        z = FORMAT.parse(FORMAT.format(z)).doubleValue();
+        z = format.parse(format.format(z)).doubleValue();
       } catch (ParseException e) {
         // do nothing here
       }
@@ -95,17 +104,41 @@ public class MathHelper {
   }
 
   /**
-   * Computes a reasonable number of labels for a data range.
+   * Returns the text of a label, without a useless fraction digit.
+   * 
+   * @param format the format to use, may be null
+   * @param label the label value
+   * @return the label text
+   */
+  public static String getLabel(NumberFormat format, double label) {
+    String text = "";
+    if (format != null) {
+      text = format.format(label);
+    } else if (label == Math.round(label)) {
+      text = Math.round(label) + "";
+    } else {
+      text = label + "";
+    }
+    return text;
+  }
+
+  /**
+   * Computes a reasonable number of labels for a data range. The labels
+   * returned by <code>getLabels()</code> only depend on the result, so it can
+   * serve as a cache key.
    * 
    * @param start start value
    * @param end final value
    * @param approxNumLabels desired number of labels
-   * @return double[] array containing {start value, end value, increment}
+   * @param result receives {start value, end value, increment}
    */
-  private static double[] computeLabels(final double start, final double end,
-      final int approxNumLabels) {
+  public static void computeLabels(final double start, final double end,
+      final int approxNumLabels, double[] result) {
     if (Math.abs(start - end) < 0.0000001f) {
-      return new double[] { start, start, 0 };
+      result[0] = start;
+      result[1] = start;
+      result[2] = 0;
+      return;
     }
     double s = start;
     double e = end;
@@ -121,9 +154,14 @@ public class MathHelper {
     double xStart = xStep * Math.ceil(s / xStep);
     double xEnd = xStep * Math.floor(e / xStep);
     if (switched) {
-      return new double[] { xEnd, xStart, -1.0 * xStep };
+      result[0] = xEnd;
+      result[1] = xStart;
+      result[2] = -1.0 * xStep;
+    } else {
+      result[0] = xStart;
+      result[1] = xEnd;
+      result[2] = xStep;
     }
-    return new double[] { xStart, xEnd, xStep };
   }
 
   /**
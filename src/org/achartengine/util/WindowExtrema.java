@@ -0,0 +1,226 @@
+/**
+ * Copyright (C) 2009 - 2013 SC 4ViewSoft SRL
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.achartengine.util;
+
+/**
+ * Keeps track of the minimum and maximum of a sliding window of values, where
+ * values are added at the tail and removed from the head. Both operations, as
+ * well as reading the extrema, take amortized constant time, as only the values
+ * that may still become an extremum are kept, in two monotonic deques.
+ */
+public class WindowExtrema {
+  /** The position of the oldest value in the window. */
+  private long mFirst;
+  /** The position of the next value to be added. */
+  private long mNext;
+  /** The candidates for the minimum, ascending. */
+  private final Deque mMin = new Deque(false);
+  /** The candidates for the maximum, descending. */
+  private final Deque mMax = new Deque(true);
+
+  /**
+   * Adds a value at the tail of the window.
+   *
+   * @param value the value
+   */
+  public void add(double value) {
+    mMin.push(mNext, value);
+    mMax.push(mNext, value);
+    mNext++;
+  }
+
+  /**
+   * Adds a range of values at the tail of the window, as a single entry. Meant
+   * for windows of samples that consist of several values each.
+   *
+   * @param min the minimum of the values
+   * @param max the maximum of the values
+   */
+  public void add(double min, double max) {
+    mMin.push(mNext, min);
+    mMax.push(mNext, max);
+    mNext++;
+  }
+
+  /**
+   * Removes the value at the head of the window.
+   */
+  public void removeFirst() {
+    if (mFirst == mNext) {
+      throw new IllegalStateException("The window is empty");
+    }
+    mMin.expire(mFirst);
+    mMax.expire(mFirst);
+    mFirst++;
+  }
+
+  /**
+   * Removes all the values.
+   */
+  public void clear() {
+    mFirst = 0;
+    mNext = 0;
+    mMin.clear();
+    mMax.clear();
+  }
+
+  /**
+   * Returns the number of values in the window.
+   *
+   * @return the value count
+   */
+  public int size() {
+    return (int) (mNext - mFirst);
+  }
+
+  /**
+   * Returns the minimum of the values in the window.
+   *
+   * @return the minimum or MathHelper.NULL_VALUE if the window is empty
+   */
+  public double getMin() {
+    return mMin.isEmpty() ? MathHelper.NULL_VALUE : mMin.first();
+  }
+
+  /**
+   * Returns the maximum of the values in the window.
+   *
+   * @return the maximum or -MathHelper.NULL_VALUE if the window is empty
+   */
+  public double getMax() {
+    return mMax.isEmpty() ? -MathHelper.NULL_VALUE : mMax.first();
+  }
+
+  /**
+   * A ring buffer deque of the values that may still become an extremum,
+   * along with their window positions.
+   */
+  private static class Deque {
+    /** The initial buffer capacity. */
+    private static final int INITIAL_CAPACITY = 16;
+    /** If the deque keeps maximum candidates rather than minimum ones. */
+    private final boolean mMaximum;
+    /** The candidate values. */
+    private double[] mValues = new double[INITIAL_CAPACITY];
+    /** The window positions of the candidates. */
+    private long[] mPositions = new long[INITIAL_CAPACITY];
+    /** The buffer position of the first candidate. */
+    private int mHead;
+    /** The number of candidates. */
+    private int mSize;
+
+    /**
+     * Builds a new deque.
+     *
+     * @param maximum if the deque keeps maximum candidates
+     */
+    Deque(boolean maximum) {
+      mMaximum = maximum;
+    }
+
+    /**
+     * Adds a value, dropping the candidates it supersedes.
+     *
+     * @param position the window position of the value
+     * @param value the value
+     */
+    void push(long position, double value) {
+      while (mSize > 0) {
+        double last = mValues[physical(mSize - 1)];
+        if (mMaximum ? last > value : last < value) {
+          break;
+        }
+        mSize--;
+      }
+      if (mSize == mValues.length) {
+        grow();
+      }
+      int index = physical(mSize);
+      mValues[index] = value;
+      mPositions[index] = position;
+      mSize++;
+    }
+
+    /**
+     * Drops the first candidate if it is the value at the given position.
+     *
+     * @param position the window position of the removed value
+     */
+    void expire(long position) {
+      if (mSize > 0 && mPositions[mHead] == position) {
+        mHead = physical(1);
+        mSize--;
+      }
+    }
+
+    /**
+     * Returns the current extremum.
+     *
+     * @return the first candidate value
+     */
+    double first() {
+      return mValues[mHead];
+    }
+
+    /**
+     * Returns if there are no candidates.
+     *
+     * @return if the deque is empty
+     */
+    boolean isEmpty() {
+      return mSize == 0;
+    }
+
+    /**
+     * Drops all the candidates.
+     */
+    void clear() {
+      mHead = 0;
+      mSize = 0;
+    }
+
+    /**
+     * Doubles the buffer capacity, unrolling the ring in the process.
+     */
+    private void grow() {
+      int capacity = mValues.length * 2;
+      double[] values = new double[capacity];
+      long[] positions = new long[capacity];
+      int tail = Math.min(mSize, mValues.length - mHead);
+      System.arraycopy(mValues, mHead, values, 0, tail);
+      System.arraycopy(mPositions, mHead, positions, 0, tail);
+      System.arraycopy(mValues, 0, values, tail, mSize - tail);
+      System.arraycopy(mPositions, 0, positions, tail, mSize - tail);
+      mValues = values;
+      mPositions = positions;
+      mHead = 0;
+    }
+
+    /**
+     * Maps a candidate index to a buffer position.
+     *
+     * @param index the candidate index
+     * @return the buffer position
+     */
+    private int physical(int index) {
+      int position = mHead + index;
+      if (position >= mValues.length) {
+        position -= mValues.length;
+      }
+      return position;
+    }
+  }
+}
@@ -0,0 +1,81 @@
+/**
+ * Copyright (C) 2009 - 2013 SC 4ViewSoft SRL
+ *  
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *  
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *  
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.achartengine.model;
+
+import junit.framework.TestCase;
+
+/**
+ * Tests the ring buffer backed XY series.
+ */
+public class RingXYSeriesTest extends TestCase {
+  /** The X value from which a fixed padding of 1e-12 no longer changes X. */
+  private static final double LARGE_X = 16384;
+
+  /**
+   * Tests that values sharing an X value are kept, in order.
+   */
+  public void testDuplicateX() {
+    RingXYSeries series = new RingXYSeries("test");
+    series.add(1, 10);
+    series.add(1, 20);
+    assertEquals(2, series.getItemCount());
+    assertTrue(series.getX(1) > series.getX(0));
+    assertEquals(20.0, series.getY(1));
+  }
+
+  /**
+   * Tests that a duplicate X value is added, rather than spinning forever,
+   * where a fixed padding would be lost to rounding. A capture reaches that X
+   * after about 4.5 hours.
+   * 
+   * @throws InterruptedException if interrupted while waiting for the writer
+   */
+  public void testDuplicateLargeX() throws InterruptedException {
+    final RingXYSeries series = new RingXYSeries("test");
+    Thread writer = new Thread() {
+      @Override
+      public void run() {
+        for (int i = 0; i < 3; i++) {
+          series.add(LARGE_X, i);
+        }
+        series.add(LARGE_X * 4, 3);
+        series.add(LARGE_X * 4, 4);
+      }
+    };
+    writer.start();
+    writer.join(5000);
+    assertFalse("adding a duplicate X hangs", writer.isAlive());
+    assertEquals(5, series.getItemCount());
+    for (int i = 1; i < series.getItemCount(); i++) {
+      assertTrue(series.getX(i) > series.getX(i - 1));
+    }
+    assertEquals(LARGE_X * 4, series.getX(3));
+  }
+
+  /**
+   * Tests that an X value lower than the last one is rejected.
+   */
+  public void testDecreasingX() {
+    RingXYSeries series = new RingXYSeries("test");
+    series.add(LARGE_X, 0);
+    try {
+      series.add(LARGE_X - 1, 1);
+      fail("decreasing X accepted");
+    } catch (IllegalArgumentException e) {
+      // expected
+    }
+  }
+}